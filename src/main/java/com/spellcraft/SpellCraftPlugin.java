@@ -9,6 +9,8 @@ import com.spellcraft.commands.HouseCommand;
 import com.spellcraft.commands.SpellBindCommand;
 import com.spellcraft.commands.SpellBookCommand;
 import com.spellcraft.commands.SpellCommand;
+import com.spellcraft.core.ShutdownPipeline;
+import com.spellcraft.core.SnapshotRaycaster;
 import com.spellcraft.core.SpellBookImpl;
 import com.spellcraft.core.SpellBookSpawner;
 import com.spellcraft.core.SpellCasterManager;
@@ -17,11 +19,17 @@ import com.spellcraft.core.data.PlayerDataManager;
 import com.spellcraft.core.perks.PerkManager;
 import com.spellcraft.hooks.GriefPreventionHook;
 import com.spellcraft.hooks.WGHook;
+import com.spellcraft.listeners.ChunkListener;
 import com.spellcraft.listeners.PlayerListener;
+import com.spellcraft.listeners.RaycastCacheListener;
 import com.spellcraft.listeners.SpellBookListener;
 import com.spellcraft.listeners.SpellCastListener;
 import com.spellcraft.spells.*;
 import com.spellcraft.ui.MagicBar;
+import com.spellcraft.util.IoExecutor;
+import com.spellcraft.util.TempArmorStand;
+import com.spellcraft.util.TempBlock;
+import com.spellcraft.util.TempFallingBlock;
 import com.spellcraft.util.ThreadUtil;
 import net.kyori.adventure.platform.bukkit.BukkitAudiences;
 import org.bukkit.Bukkit;
@@ -33,6 +41,7 @@ import org.bukkit.inventory.ShapelessRecipe;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
+import java.util.List;
 import java.util.Objects;
 import java.util.logging.Logger;
 
@@ -65,6 +74,12 @@ public class SpellCraftPlugin extends JavaPlugin {
     /** UI manager for player magic bars */
     private MagicBar magicBar;
 
+    /** Executor for blocking background work such as player data writes */
+    private IoExecutor ioExecutor;
+
+    /** Long-range block raycasts run off the tick thread */
+    private SnapshotRaycaster raycaster;
+
     /** Key used for registering spellbook items */
     private NamespacedKey spellBookKey;
 
@@ -80,6 +95,9 @@ public class SpellCraftPlugin extends JavaPlugin {
     /** Plugin logger */
     public static Logger log;
 
+    /** Temporary blocks reverted between two deadline checks on shutdown */
+    private static final int REVERT_BATCH_SIZE = 512;
+
     @Override
     public void onEnable() {
         plugin = this;
@@ -91,6 +109,16 @@ public class SpellCraftPlugin extends JavaPlugin {
         saveResource("perks.yml", false);
         loadPerksConfig();
 
+        ThreadUtil.setOverrunThreshold(getConfig().getDouble("tasks.overrun-ms", 5.0));
+        ThreadUtil.setHandoffLimit(getConfig().getInt("tasks.handoff-limit", 1000));
+
+        ioExecutor = new IoExecutor(getConfig().getInt("io.max-concurrent", 4));
+
+        raycaster = new SnapshotRaycaster(
+                getConfig().getInt("raycast.cache-chunks", 256),
+                getConfig().getLong("raycast.max-age-ms", 5000L),
+                getConfig().getLong("raycast.timeout-ticks", 100L));
+
         perkManager = new PerkManager(this);
 
         // Initialize spellbook key
@@ -144,27 +172,82 @@ public class SpellCraftPlugin extends JavaPlugin {
 
     @Override
     public void onDisable() {
-        // Stop magic bar UI
+        // No ticker runs from here on, so scheduled hand-offs run directly
+        ThreadUtil.beginShutdown();
+
+        new ShutdownPipeline()
+                .step("stop admitting casts", this::stopAdmittingCasts)
+                .step("remove live spells", this::removeLiveSpells)
+                .step("revert temporary blocks", this::revertTemporaryChanges)
+                .step("flush player data", this::flushPlayerData)
+                .run();
+
+        // Shutdown any background tasks
+        ThreadUtil.shutdown();
+
+        getLogger().info("SpellCraft has been disabled!");
+    }
+
+    /** Rejects new casts and stops the magic bar UI */
+    private String stopAdmittingCasts() {
+        if (spellManagerImpl != null) {
+            spellManagerImpl.getAdmissionController().close();
+        }
         if (magicBar != null) {
             magicBar.stop();
         }
+        return null;
+    }
+
+    /** Removes every active spell and unregisters all spells */
+    private String removeLiveSpells() {
+        if (spellManagerImpl == null) return null;
+
+        spellManagerImpl.getEngine().removeAll();
+        int left = spellManagerImpl.getActiveSpells().size();
 
-        // Unregister spells asynchronously
-        if (spellManager != null) {
-            spellManager.getSpellMap().forEach((s, spell) -> spellManager.unregisterSpellAsync(spell));
-            spellManager.shutdown();
+        List.copyOf(spellManager.getSpellMap().values()).forEach(spellManager::unregisterSpell);
+        spellManager.shutdown();
+
+        return left == 0 ? null : left + " spells could not be removed";
+    }
+
+    /** Reverts temporary blocks in batches until done or out of time, then removes temporary entities */
+    private String revertTemporaryChanges() {
+        long deadline = ShutdownPipeline.deadline(getConfig().getDouble("shutdown.revert-seconds", 5.0));
+
+        while (TempBlock.count() > 0 && System.nanoTime() < deadline) {
+            TempBlock.revertAll(REVERT_BATCH_SIZE);
         }
 
-        // Save and clear player casters
+        TempFallingBlock.removeAll();
+        TempArmorStand.removeAll();
+
+        int left = TempBlock.count();
+        return left == 0 ? null : left + " temporary blocks not reverted";
+    }
+
+    /** Saves every loaded caster in parallel and waits for the writes up to the configured deadline */
+    private String flushPlayerData() {
         if (casterManager != null) {
             casterManager.saveAll();
             casterManager.clearCasters();
         }
 
-        // Shutdown any background tasks
-        ThreadUtil.shutdown();
+        if (ioExecutor == null) return null;
 
-        getLogger().info("SpellCraft has been disabled!");
+        int left = ioExecutor.shutdown((long) (getConfig().getDouble("io.shutdown-timeout-seconds", 10.0) * 1000L));
+        return left == 0 ? null : "data of " + left + " players not written";
+    }
+
+    /** @return the executor for blocking background work such as player data writes */
+    public IoExecutor getIoExecutor() {
+        return ioExecutor;
+    }
+
+    /** @return the service running long-range block raycasts off the tick thread */
+    public SnapshotRaycaster getRaycaster() {
+        return raycaster;
     }
 
     /**
@@ -227,6 +310,12 @@ public class SpellCraftPlugin extends JavaPlugin {
         getServer().getPluginManager().registerEvents(
                 new SpellBookListener(this, casterManager, spellManager, spellBookKey), this
         );
+        getServer().getPluginManager().registerEvents(
+                new ChunkListener(spellManagerImpl.getEngine()), this
+        );
+        getServer().getPluginManager().registerEvents(
+                new RaycastCacheListener(raycaster), this
+        );
     }
 
     /** Registers all plugin commands and their tab completers */
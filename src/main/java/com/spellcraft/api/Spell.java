@@ -2,11 +2,9 @@ package com.spellcraft.api;
 
 import com.spellcraft.api.magic.MagicElement;
 import net.kyori.adventure.text.format.TextColor;
-import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.Action;
 import org.bukkit.permissions.Permission;
-import org.jetbrains.annotations.NotNull;
 
 public interface Spell {
 
@@ -41,6 +39,7 @@ public interface Spell {
     Double getRange();
 
     /**
+     * Casts this Spell. Every successful cast runs as its own {@link com.spellcraft.core.ActiveSpell} instance.
      * @param caster
      * @return a {@link SpellResult} representing whether or not this cast was carried out successfully and if not why wasn't it.
      */
@@ -90,9 +89,4 @@ public interface Spell {
      */
     String getInstructions();
 
-    /**
-     * Make this method return the location of this Spell.
-     * @return this Spell's location as a {@link Location}.
-     */
-   @NotNull Location getLocation();
 }
@@ -1,6 +1,7 @@
 package com.spellcraft.api;
 
 import com.spellcraft.api.house.House;
+import com.spellcraft.util.TaskScope;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
@@ -198,4 +199,12 @@ public interface SpellCaster {
      * @return true if this SpellCaster belongs to a {@link House}, false otherwise.
      */
     boolean hasHouse();
+
+    /**
+     * Returns the tasks of this SpellCaster's session. They are cancelled when the player
+     * leaves, together with the tasks of every spell the player cast.
+     *
+     * @return the {@link TaskScope} of this SpellCaster's session.
+     */
+    TaskScope getTasks();
 }
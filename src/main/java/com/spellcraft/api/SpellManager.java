@@ -1,6 +1,7 @@
 package com.spellcraft.api;
 
-import com.spellcraft.core.AbstractSpell;
+import com.spellcraft.core.ActiveSpell;
+import com.spellcraft.core.ActiveSpellRegistry;
 
 import java.util.Collection;
 import java.util.Map;
@@ -118,14 +119,19 @@ public interface SpellManager {
     void shutdown();
 
     /**
-     * Tracks an active {@link AbstractSpell} instance.
+     * Tracks an {@link ActiveSpell} instance.
      *
-     * @param spell the {@link AbstractSpell} to track.
+     * @param spell the {@link ActiveSpell} to track.
      */
-    void track(AbstractSpell spell);
+    void track(ActiveSpell spell);
 
     /**
-     * @return a {@link Set} of currently active {@link AbstractSpell}s.
+     * @return a {@link Set} of currently active {@link ActiveSpell}s.
      */
-    Set<AbstractSpell> getActiveSpells();
+    Set<ActiveSpell> getActiveSpells();
+
+    /**
+     * @return the {@link ActiveSpellRegistry} indexing active spells by world, chunk, caster and element.
+     */
+    ActiveSpellRegistry getActiveSpellRegistry();
 }
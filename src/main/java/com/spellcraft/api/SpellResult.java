@@ -26,7 +26,10 @@ public enum SpellResult {
     INVALID_TARGET("Invalid target for this spell"),
 
     /** The spell cast was cancelled by an external source. */
-    CANCELLED("Spell cast was cancelled");
+    CANCELLED("Spell cast was cancelled"),
+
+    /** The server is too busy to take on more spells right now. */
+    SERVER_BUSY("The server is busy, try again in a moment");
 
     private final String message;
 
@@ -60,6 +63,9 @@ public enum SpellResult {
      * @return the matching {@link SpellResult}, or null if no match is found.
      */
     public static @Nullable SpellResult of(String message) {
+        if (message.equalsIgnoreCase("SERVER_BUSY")) {
+            return SpellResult.SERVER_BUSY;
+        }
         if (message.equalsIgnoreCase("CANCELLED")) {
             return SpellResult.CANCELLED;
         }
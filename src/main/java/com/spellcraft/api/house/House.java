@@ -6,6 +6,7 @@ import net.kyori.adventure.text.format.TextColor;
 import org.jetbrains.annotations.NotNull;
 import com.spellcraft.api.SpellCaster;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a magical house that a {@link SpellCaster}
@@ -18,7 +19,7 @@ import java.util.*;
 public final class House {
 
     /** Internal registry of all houses. */
-    private static final Map<String, House> HOUSES = new HashMap<>();
+    private static final Map<String, House> HOUSES = new ConcurrentHashMap<>();
 
     /** House Vulmeron — cunning and destructive magic. */
     public static final House VULMERON =
@@ -4,9 +4,9 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextColor;
 import org.jetbrains.annotations.NotNull;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import com.spellcraft.api.Spell;
 
 /**
@@ -18,7 +18,7 @@ import com.spellcraft.api.Spell;
 public final class MagicElement {
 
     /** Internal registry of all magic elements. */
-    private static final Map<String, MagicElement> ELEMENTS = new HashMap<>();
+    private static final Map<String, MagicElement> ELEMENTS = new ConcurrentHashMap<>();
 
     /** Fire-based magic element. */
     public static final MagicElement FIRE =
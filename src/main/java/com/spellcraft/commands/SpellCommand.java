@@ -3,7 +3,14 @@ package com.spellcraft.commands;
 import com.spellcraft.SpellCraftPlugin;
 import com.spellcraft.api.*;
 import com.spellcraft.api.magic.MagicElement;
+import com.spellcraft.core.SnapshotRaycaster;
 import com.spellcraft.core.SpellCasterManager;
+import com.spellcraft.core.SpellEngine;
+import com.spellcraft.util.BlockMemo;
+import com.spellcraft.util.EntityGrid;
+import com.spellcraft.util.TargetTracker;
+import com.spellcraft.util.TaskMetrics;
+import com.spellcraft.util.ThreadUtil;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
@@ -11,7 +18,9 @@ import org.bukkit.command.*;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class SpellCommand implements CommandExecutor, TabCompleter {
@@ -20,6 +29,9 @@ public class SpellCommand implements CommandExecutor, TabCompleter {
     private final SpellCasterManager casterManager;
     private final SpellCraftPlugin plugin;
 
+    /** Number of labels listed by {@code /spell tasks}, busiest first. */
+    private static final int TASK_STATS_LIMIT = 10;
+
     public SpellCommand(
             SpellCraftPlugin plugin,
             SpellManager spellManager,
@@ -101,6 +113,14 @@ public class SpellCommand implements CommandExecutor, TabCompleter {
                     reloadSpellCraft(player);
 
 
+            case "engine" ->
+                    showEngineStats(player, args);
+
+
+            case "tasks" ->
+                    showTaskStats(player, args);
+
+
             case "display" -> {
 
                 if (args.length < 2) {
@@ -147,13 +167,21 @@ public class SpellCommand implements CommandExecutor, TabCompleter {
 
         plugin.reloadPerksConfig();
 
+        plugin.getSpellManagerImpl().getEngine().reload();
+
+        plugin.getSpellManagerImpl().getAdmissionController().reload();
+
+        ThreadUtil.setOverrunThreshold(plugin.getConfig().getDouble("tasks.overrun-ms", 5.0));
+
+        ThreadUtil.setHandoffLimit(plugin.getConfig().getInt("tasks.handoff-limit", 1000));
+
 
         plugin.getMagicBar().stop();
 
         plugin.getMagicBar().start();
 
 
-        plugin.registerSpells();
+        spellManager.reloadSpells();
 
 
         plugin.getServer()
@@ -170,6 +198,161 @@ public class SpellCommand implements CommandExecutor, TabCompleter {
 
 
 
+    private void showEngineStats(Player player, String[] args) {
+
+
+        if (!player.hasPermission("spellcraft.admin.*")
+                && !player.hasPermission("spellcraft.admin.engine")) {
+
+            player.sendMessage("No permission.");
+
+            return;
+        }
+
+
+
+        SpellEngine engine = plugin.getSpellManagerImpl().getEngine();
+
+
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+
+            engine.resetStats();
+
+            plugin.getSpellManagerImpl().getAdmissionController().resetStats();
+
+            player.sendMessage("Spell engine statistics reset.");
+
+            return;
+        }
+
+
+
+        SpellEngine.Stats stats = engine.getStats();
+
+
+        player.sendMessage("=== Spell Engine ===");
+
+        player.sendMessage("Tickers: " + stats.tickers()
+                + " | Active spells: " + stats.activeSpells()
+                + " | Hibernating: " + stats.hibernating());
+
+        player.sendMessage("Ticks: " + stats.ticks()
+                + " | Progressed: " + stats.progressed());
+
+        player.sendMessage(String.format("Tick time: avg %.3f ms, peak %.3f ms, budget %s",
+                stats.avgTickMillis(),
+                stats.peakTickMillis(),
+                stats.budgetMillis() > 0 ? String.format("%.1f ms", stats.budgetMillis()) : "unlimited"));
+
+        player.sendMessage("Deferred: " + stats.deferred()
+                + " in " + stats.overBudgetTicks() + " over-budget ticks");
+
+        player.sendMessage("Skipped by level of detail: " + stats.thinned());
+
+        player.sendMessage("Handed over between regions: " + stats.migrated());
+
+        player.sendMessage("Computed in parallel: " + stats.parallelComputed());
+
+        EntityGrid.Stats grid = EntityGrid.getStats();
+
+        player.sendMessage("Entity grid: " + grid.builds() + " builds, "
+                + grid.queries() + " queries, " + grid.fallbacks() + " world lookups");
+
+        BlockMemo.Stats blocks = BlockMemo.getStats();
+
+        player.sendMessage("Block memo: " + blocks.hits() + " of " + blocks.reads() + " block reads cached");
+
+        TargetTracker.Stats targets = TargetTracker.getStats();
+
+        player.sendMessage("Homing targets: " + targets.kept() + " kept, " + targets.searches() + " searches");
+
+        SnapshotRaycaster.Stats raycasts = plugin.getRaycaster().getStats();
+
+        player.sendMessage("Async raycasts: " + raycasts.traces() + ", chunk snapshots "
+                + raycasts.hits() + " cached / " + raycasts.misses() + " taken, " + raycasts.cached() + " kept");
+
+        player.sendMessage("Casts rejected (server busy): "
+                + plugin.getSpellManagerImpl().getAdmissionController().getRejectedCount());
+    }
+
+
+
+
+    private void showTaskStats(Player player, String[] args) {
+
+
+        if (!player.hasPermission("spellcraft.admin.*")
+                && !player.hasPermission("spellcraft.admin.tasks")) {
+
+            player.sendMessage("No permission.");
+
+            return;
+        }
+
+
+
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+
+            ThreadUtil.resetMetrics();
+
+            player.sendMessage("Task statistics reset.");
+
+            return;
+        }
+
+
+
+        List<Map.Entry<String, TaskMetrics.Snapshot>> labels = ThreadUtil.getLabelMetrics()
+                .entrySet()
+                .stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().snapshot()))
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<String, TaskMetrics.Snapshot> entry) -> entry.getValue().totalNanos()).reversed())
+                .limit(TASK_STATS_LIMIT)
+                .toList();
+
+
+        player.sendMessage("=== Scheduled Tasks ===");
+
+        player.sendMessage(String.format("Registered: %d | Timer wheel callbacks: %d | Overrun threshold: %.1f ms",
+                ThreadUtil.getAllRunningTasks().size(),
+                ThreadUtil.getPendingTimeouts(),
+                ThreadUtil.getOverrunThreshold()));
+
+        ThreadUtil.HandoffStats handoffs = ThreadUtil.getHandoffStats();
+
+        player.sendMessage("Hand-offs: " + handoffs.handedOff()
+                + " | Queued: " + handoffs.depth() + " in " + handoffs.queues() + " regions"
+                + " | Peak depth: " + handoffs.peakDepth()
+                + " | Ticks at limit: " + handoffs.limitedTicks());
+
+
+        if (labels.isEmpty()) {
+
+            player.sendMessage("No task has run yet.");
+
+            return;
+        }
+
+
+        for (Map.Entry<String, TaskMetrics.Snapshot> entry : labels) {
+
+            TaskMetrics.Snapshot stats = entry.getValue();
+
+            player.sendMessage(String.format("%s: %d runs, total %.1f ms, avg %.3f ms, max %.3f ms, %d overruns, %d errors",
+                    entry.getKey(),
+                    stats.runs(),
+                    stats.totalMillis(),
+                    stats.avgMillis(),
+                    stats.maxMillis(),
+                    stats.overruns(),
+                    stats.exceptions()));
+        }
+    }
+
+
+
+
     private void sendHelp(Player player) {
 
         player.sendMessage("=== SpellCraft ===");
@@ -183,6 +366,10 @@ public class SpellCommand implements CommandExecutor, TabCompleter {
         player.sendMessage("/spell bound");
 
         player.sendMessage("/spell reload");
+
+        player.sendMessage("/spell engine [reset]");
+
+        player.sendMessage("/spell tasks [reset]");
     }
 
 
@@ -422,6 +609,8 @@ public class SpellCommand implements CommandExecutor, TabCompleter {
                             "learned",
                             "bound",
                             "reload",
+                            "engine",
+                            "tasks",
                             "display")
 
                     .stream()
@@ -6,7 +6,6 @@ import com.spellcraft.api.SpellCaster;
 import com.spellcraft.api.SpellCategory;
 import com.spellcraft.api.SpellResult;
 import com.spellcraft.api.magic.MagicElement;
-import com.spellcraft.util.ThreadUtil;
 
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.Action;
@@ -15,25 +14,33 @@ import org.enginehub.linbus.stream.token.LinToken;
 import java.util.Objects;
 
 
+/**
+ * Base class for all spells.
+ * <p>
+ * The registered AbstractSpell is a descriptor of a spell. Each successful
+ * {@link #cast(SpellCaster)} creates a separate {@link ActiveSpell} holding the state of that cast.
+ * <p>
+ * Spells with a {@link #getConfigKey() config key} bind their {@code spells.<key>} section once per
+ * load or reload through {@link #loadSettings(SpellConfig)}, typically into an immutable record
+ * held in a volatile field, so casts and ticks only ever read pre-parsed values. The common values
+ * are held the same way; keys missing from the config fall back to the constructor's defaults.
+ */
 public abstract class AbstractSpell implements Spell {
 
 
     public final String name;
     public final String description;
     public final SpellCategory category;
-    public final Integer magicCost;
-    public final Long cooldown;
-    public final Double range;
-    public boolean enabled;
     public final String instructions;
 
+    /** Defaults given to the constructor, used for values missing from the config; read the getters instead. */
+    private final Integer defaultMagicCost;
+    private final Long defaultCooldown;
+    private final Double defaultRange;
+    private final boolean defaultEnabled;
 
-    public SpellCaster caster;
-
-    public volatile boolean removed;
-    public long startTime;
-
-    public ThreadUtil.ThreadTask progressTask;
+    /** Common values in effect, replaced as a whole on reload. */
+    private volatile CommonSettings common;
 
 
 
@@ -51,11 +58,12 @@ public abstract class AbstractSpell implements Spell {
         this.name = name;
         this.description = description;
         this.category = category;
-        this.magicCost = magicCost;
-        this.cooldown = cooldown;
-        this.range = range;
-        this.enabled = enabled;
+        this.defaultMagicCost = magicCost;
+        this.defaultCooldown = cooldown;
+        this.defaultRange = range;
+        this.defaultEnabled = enabled;
         this.instructions = instructions;
+        this.common = new CommonSettings(enabled, magicCost, cooldown, range);
 
     }
 
@@ -65,7 +73,11 @@ public abstract class AbstractSpell implements Spell {
     public final SpellResult cast(SpellCaster caster) {
 
 
-        if (!enabled)
+        // One snapshot for the whole cast, so a reload cannot mix old and new values.
+        CommonSettings settings = common;
+
+
+        if (!settings.enabled())
             return SpellResult.FAILURE;
 
 
@@ -80,7 +92,7 @@ public abstract class AbstractSpell implements Spell {
             return SpellResult.ON_COOLDOWN;
 
 
-        if (!caster.hasMagic(magicCost))
+        if (!caster.hasMagic(settings.magicCost()))
             return SpellResult.INSUFFICIENT_MAGIC;
 
 
@@ -96,15 +108,23 @@ public abstract class AbstractSpell implements Spell {
         }
 
 
-        this.caster = caster;
+        SpellResult admission =
+                SpellCraftPlugin
+                        .getInstance()
+                        .getSpellManagerImpl()
+                        .getAdmissionController()
+                        .admit(this, player.getLocation());
 
-        this.removed = false;
+        if (!admission.isSuccess())
+            return admission;
 
-        this.startTime = System.currentTimeMillis();
 
 
+        ActiveSpell instance = createInstance();
 
-        SpellResult result = execute(caster);
+
+
+        SpellResult result = instance.start(caster);
 
 
 
@@ -113,14 +133,14 @@ public abstract class AbstractSpell implements Spell {
 
 
 
-        caster.consumeMagic(magicCost);
+        caster.consumeMagic(settings.magicCost());
 
 
 
         SpellCraftPlugin
                 .getInstance()
                 .getSpellManagerImpl()
-                .track(this);
+                .track(instance);
 
 
 
@@ -130,76 +150,84 @@ public abstract class AbstractSpell implements Spell {
 
 
 
-    protected abstract SpellResult execute(SpellCaster caster);
-
-
-
-
-    public void remove() {
-
-
-        if (removed)
-            return;
-
-
-        removed = true;
-
+    /**
+     * Creates a fresh per-cast instance of this spell. Called once per cast; instances are never
+     * reused, so callbacks that outlive a cast can safely check {@link ActiveSpell#isRemoved()}.
+     *
+     * @return a new {@link ActiveSpell}
+     */
+    protected abstract ActiveSpell createInstance();
 
 
-        if (progressTask != null)
-            progressTask.cancel();
 
+    /**
+     * @return the key of this spell's section under {@code spells.} in config.yml, or null if the spell is not configurable
+     */
+    protected String getConfigKey() {
 
-
-        onStop();
-
-
-
-        if (caster != null)
-            caster.setCooldown(this, cooldown);
-
+        return null;
 
     }
 
 
 
-    public boolean isRemoved() {
-
-        return removed;
-
-    }
+    /**
+     * Parses this spell's own settings from its config section. Called on registration and on every
+     * reload, after the common values (enabled, magic-cost, cooldown, range) have been read.
+     * Implementations should publish the result with a single volatile write.
+     *
+     * @param config the spell's config section
+     */
+    protected void loadSettings(SpellConfig config) {}
 
 
 
+    /**
+     * Re-binds this spell's config section and reports any invalid values.
+     * A spell without a {@link #getConfigKey() config key} goes back to its constructor's values,
+     * undoing any {@link #setEnabled(boolean)}.
+     */
+    public final synchronized void reloadSettings() {
 
-    public void setProgressTask(ThreadUtil.ThreadTask task) {
+        String key = getConfigKey();
 
-        this.progressTask = task;
+        if (key == null) {
 
-    }
+            common = new CommonSettings(defaultEnabled, defaultMagicCost, defaultCooldown, defaultRange);
+            return;
 
+        }
 
 
-    public long getAliveTime() {
+        SpellConfig config = SpellConfig.of(key);
 
-        return System.currentTimeMillis() - startTime;
 
-    }
+        common = new CommonSettings(
+                config.getBoolean("enabled", defaultEnabled),
+                config.getInt("magic-cost", defaultMagicCost),
+                config.getLong("cooldown", defaultCooldown),
+                defaultRange == null ? null : config.getDouble("range", defaultRange)
+        );
 
 
+        loadSettings(config);
 
-    protected SpellCaster getCaster() {
 
-        return caster;
+        config.report(name);
 
     }
 
 
-    public abstract void progress();
 
-    protected abstract void onLoad();
+    /**
+     * Called once when this spell is registered.
+     */
+    protected void onLoad() {}
 
-    protected abstract void onStop();
+    /**
+     * Called once when this spell is unregistered.
+     */
+    protected void onUnload() {}
 
 
     @Override
@@ -221,15 +249,16 @@ public abstract class AbstractSpell implements Spell {
     @Override
     public Boolean isEnabled() {
 
-        return enabled;
+        return common.enabled();
 
     }
 
 
     @Override
-    public void setEnabled(boolean enabled) {
+    public synchronized void setEnabled(boolean enabled) {
 
-        this.enabled = enabled;
+        CommonSettings current = common;
+        common = new CommonSettings(enabled, current.magicCost(), current.cooldown(), current.range());
 
     }
 
@@ -261,7 +290,7 @@ public abstract class AbstractSpell implements Spell {
     @Override
     public Integer getMagicCost() {
 
-        return magicCost;
+        return common.magicCost();
 
     }
 
@@ -269,7 +298,7 @@ public abstract class AbstractSpell implements Spell {
     @Override
     public Long getCooldown() {
 
-        return cooldown;
+        return common.cooldown();
 
     }
 
@@ -277,7 +306,7 @@ public abstract class AbstractSpell implements Spell {
     @Override
     public Double getRange() {
 
-        return range;
+        return common.range();
 
     }
 
@@ -290,4 +319,17 @@ public abstract class AbstractSpell implements Spell {
     }
 
 
+
+    /**
+     * Values every configurable spell has, published together so readers never see half a reload.
+     *
+     * @param enabled   whether the spell can be cast
+     * @param magicCost the magic a cast costs
+     * @param cooldown  the cooldown after a cast, in milliseconds
+     * @param range     the range of the spell, or null if it has none
+     */
+    private record CommonSettings(boolean enabled, Integer magicCost, Long cooldown, Double range) {
+    }
+
+
 }
\ No newline at end of file
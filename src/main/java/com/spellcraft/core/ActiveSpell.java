@@ -0,0 +1,363 @@
+package com.spellcraft.core;
+
+import com.spellcraft.api.SpellCaster;
+import com.spellcraft.api.SpellResult;
+import com.spellcraft.api.magic.MagicElement;
+import com.spellcraft.util.TaskScope;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A single cast of an {@link AbstractSpell}.
+ * <p>
+ * The registered {@link AbstractSpell} is only a descriptor; every successful cast gets its
+ * own ActiveSpell, so per-cast state such as the caster, positions and timers is never shared
+ * between players casting the same spell.
+ */
+public abstract class ActiveSpell {
+
+    /** The descriptor this instance was created from. */
+    private final AbstractSpell spell;
+
+    /** The caster of this instance. */
+    protected SpellCaster caster;
+
+    /** Whether this instance has been removed. */
+    private volatile boolean removed;
+
+    /** The time this instance was started, in milliseconds. */
+    private long startTime;
+
+    /** Tasks owned by this cast, cancelled when it is removed. */
+    private volatile TaskScope tasks = new TaskScope();
+
+    /** Consecutive ticks the {@link SpellEngine} has deferred this instance. */
+    int deferredTicks;
+
+    /** Rank of this instance in the current engine tick. */
+    double rank;
+
+    /** Level of detail the {@link SpellEngine} currently simulates this instance at. */
+    volatile DetailLevel detail = DetailLevel.FULL;
+
+    /** Share of particles spawned for this instance, see {@link DetailLevel#getParticleScale()}. */
+    double particleScale = 1.0;
+
+    /** Ticks until the {@link SpellEngine} re-evaluates {@link #detail}. */
+    int detailCountdown;
+
+    /** Ticks elapsed since the last {@link #progress()} call. */
+    int elapsedTicks;
+
+    /** Ticks covered by the current {@link #progress()} call. */
+    int tickDelta = 1;
+
+    /** Whether {@link #compute()} already ran for the next {@link #progress()} call. */
+    boolean computed;
+
+    /** Whether this instance asked to be suspended until its chunk is loaded. */
+    volatile boolean hibernating;
+
+    /** Whether this instance is parked in the engine's hibernation store; tickers drop it. */
+    volatile boolean suspended;
+
+    /** Whether a ticker of the {@link SpellEngine} currently lists this instance. */
+    volatile boolean listed;
+
+    /** The registry this instance is listed in, or null if it is not registered. */
+    ActiveSpellRegistry registry;
+
+    /** The chunk this instance is indexed under in its registry. */
+    ActiveSpellRegistry.ChunkKey indexedChunk;
+
+    /**
+     * Creates a new instance of the given spell.
+     *
+     * @param spell the {@link AbstractSpell} descriptor
+     */
+    protected ActiveSpell(@NotNull AbstractSpell spell) {
+        this.spell = spell;
+    }
+
+    /**
+     * Binds this instance to a caster and runs {@link #execute(SpellCaster)}. If the cast fails,
+     * any tasks it scheduled are cancelled.
+     *
+     * @param caster the {@link SpellCaster} casting the spell
+     * @return the result of {@link #execute(SpellCaster)}
+     */
+    final SpellResult start(SpellCaster caster) {
+        this.caster = caster;
+        this.removed = false;
+        this.startTime = System.currentTimeMillis();
+        this.deferredTicks = 0;
+        this.detail = DetailLevel.FULL;
+        this.particleScale = 1.0;
+        this.detailCountdown = 0;
+        this.elapsedTicks = 0;
+        this.tickDelta = 1;
+        this.computed = false;
+        this.hibernating = false;
+        this.suspended = false;
+        this.listed = false;
+        this.tasks = caster != null ? caster.getTasks().child() : new TaskScope();
+
+        SpellResult result = execute(caster);
+
+        // A failed cast is never tracked or removed, so its scope would stay in the caster's.
+        if (!result.isSuccess()) tasks.close();
+
+        return result;
+    }
+
+    /**
+     * Performs the cast.
+     *
+     * @param caster the {@link SpellCaster} casting the spell
+     * @return a {@link SpellResult} describing the outcome
+     */
+    protected abstract SpellResult execute(SpellCaster caster);
+
+    /**
+     * Called every tick by the {@link SpellEngine} while this instance is tracked,
+     * starting in the tick it was cast. Far from any player, calls may be spaced out up to
+     * {@link #getMaxTickInterval()} ticks apart; see {@link #getTickDelta()}.
+     */
+    public abstract void progress();
+
+    /**
+     * Whether this instance splits its tick into {@link #capture()}, {@link #compute()} and
+     * {@link #progress()}. Each tick the {@link SpellEngine} runs the three steps in that order;
+     * on Paper with {@code engine.parallel.enabled}, the compute steps of all such spells due in
+     * a tick run in parallel on spare cores.
+     *
+     * @return true if this instance implements {@link #capture()} and {@link #compute()}
+     */
+    public boolean isTwoPhase() {
+        return false;
+    }
+
+    /**
+     * Copies everything {@link #compute()} needs from the world into this instance, such as the
+     * caster's position or a {@link com.spellcraft.util.TargetSnapshot}. Runs on the thread that
+     * owns this instance, right before {@link #compute()}.
+     */
+    protected void capture() {}
+
+    /**
+     * Does the pure math of a tick on what {@link #capture()} copied, and records what should
+     * happen, such as hits or particle positions, for {@link #progress()} to apply. May run on any
+     * thread, at the same time as other spells' compute steps, so it must not touch the world,
+     * entities or anything shared with other instances.
+     */
+    protected void compute() {}
+
+    /**
+     * Called once when this instance is removed.
+     */
+    protected void onStop() {}
+
+    /**
+     * Whether this instance can be suspended while its location is in an unloaded chunk.
+     * Instances that cannot are removed as soon as their chunk unloads.
+     *
+     * @return true if this instance supports hibernation
+     */
+    public boolean canHibernate() {
+        return false;
+    }
+
+    /**
+     * Called when this instance is suspended. Must release everything it placed in the world,
+     * such as temporary blocks, because {@link #onStop()} may later run on a thread that does
+     * not own the area if the instance expires while hibernating.
+     * <p>
+     * When its chunk unloads, this runs during the unload, while the chunk is still loaded. When
+     * the engine instead finds the instance in a chunk that is no longer loaded, or after
+     * {@link #hibernate()}, it runs once the instance's own chunk is gone; only touch blocks
+     * whose chunks are still loaded then, see {@link #isChunkLoaded(Location)}.
+     */
+    protected void onHibernate() {}
+
+    /**
+     * Called when the chunk of a hibernating instance has loaded again, before it is ticked.
+     */
+    protected void onResume() {}
+
+    /**
+     * Suspends this instance until the chunk at {@link #getLocation()} is loaded again.
+     * Call this from {@link #progress()} instead of touching blocks of an unloaded chunk,
+     * which would load it synchronously; see {@link #isChunkLoaded(Location)}.
+     */
+    protected final void hibernate() {
+        hibernating = true;
+    }
+
+    /** @return true if this instance is suspended or about to be */
+    public boolean isHibernating() {
+        return hibernating;
+    }
+
+    /**
+     * Checks whether the chunk at a location is loaded, without loading it.
+     *
+     * @param location the location to check
+     * @return true if the location's world is loaded and the chunk containing it is loaded
+     */
+    protected static boolean isChunkLoaded(@NotNull Location location) {
+        World world = location.getWorld();
+        return world != null && world.isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    /**
+     * Tasks that belong to this cast. Anything scheduled through it is cancelled when this
+     * instance is removed or its caster leaves, so it cannot outlive the cast; work that must
+     * run afterwards, such as reverting blocks, should be scheduled through {@code ThreadUtil}.
+     *
+     * @return the {@link TaskScope} of this cast
+     */
+    protected TaskScope getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Scheduling priority used by the {@link SpellEngine} when its tick budget runs out;
+     * higher values are progressed first. Damage-dealing spells rank above spells that only
+     * affect their caster, which rank above purely cosmetic or utility spells.
+     *
+     * @return the priority of this instance
+     */
+    public int getPriority() {
+        return switch (spell.getCategory()) {
+            case COMBAT, ELEMENTAL -> 2;
+            case HEALING, PROTECTION, TRANSPORTATION -> 1;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Largest number of ticks this instance may go without a {@link #progress()} call when no
+     * player is close by. Spells that return more than 1 must advance by {@link #getTickDelta()}
+     * ticks per call and check collisions along the whole distance covered; the default keeps
+     * them at one call per tick, with only their cosmetic detail reduced.
+     *
+     * @return the maximum tick interval, at least 1
+     */
+    public int getMaxTickInterval() {
+        return 1;
+    }
+
+    /**
+     * @return the number of ticks the current {@link #progress()} call stands for, 1 unless the
+     * spell opted into a lower tick rate or was deferred by the tick budget
+     */
+    public int getTickDelta() {
+        return tickDelta;
+    }
+
+    /** @return the level of detail this instance is currently simulated at */
+    public DetailLevel getDetail() {
+        return detail;
+    }
+
+    /**
+     * What this instance is tied to. The {@link SpellEngine} progresses it on the thread that
+     * owns its anchor, and hands it to another thread when the anchor leaves the world (Paper) or
+     * region (Folia) it is ticked in. Spells that follow their caster should return
+     * {@link SpellAnchor#ENTITY} together with {@link #getAnchorEntity()}.
+     *
+     * @return the anchor of this instance, {@link SpellAnchor#MOVING} by default
+     */
+    public SpellAnchor getAnchor() {
+        return SpellAnchor.MOVING;
+    }
+
+    /**
+     * @return the entity an {@link SpellAnchor#ENTITY entity-anchored} instance follows, or null
+     * to follow {@link #getLocation()} instead
+     */
+    public Entity getAnchorEntity() {
+        return null;
+    }
+
+    /**
+     * The returned {@link Location} may be the live position the instance updates every tick,
+     * so callers must not modify it and should clone it if they keep it.
+     *
+     * @return the current {@link Location} of this instance
+     */
+    public abstract @NotNull Location getLocation();
+
+    /**
+     * Stops this instance, unregisters it, cancels its {@link #getTasks() tasks} and applies the
+     * spell's cooldown.
+     * The {@link SpellEngine} drops it on its next tick.
+     */
+    public void remove() {
+        if (removed) return;
+
+        removed = true;
+
+        ActiveSpellRegistry current = registry;
+        if (current != null) current.remove(this);
+
+        onStop();
+
+        tasks.close();
+
+        if (caster != null) caster.setCooldown(spell, spell.getCooldown());
+    }
+
+    /**
+     * Removes this instance without a cooldown and gives the caster back the magic it cost. For
+     * casts that only find out after {@link #execute(SpellCaster)} succeeded that they have no
+     * valid target, such as those waiting for an asynchronous raycast.
+     */
+    protected void refund() {
+        if (removed) return;
+
+        remove();
+
+        if (caster != null) {
+            caster.setCooldown(spell, 0L);
+            caster.regenerateMagic(spell.getMagicCost());
+        }
+    }
+
+    /** @return true if this instance has been removed */
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    /** @return the time in milliseconds since this instance was started */
+    public long getAliveTime() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /** @return the time this instance was started, in milliseconds */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /** @return the {@link AbstractSpell} descriptor of this instance */
+    public AbstractSpell getSpell() {
+        return spell;
+    }
+
+    /** @return the {@link SpellCaster} of this instance */
+    public SpellCaster getCaster() {
+        return caster;
+    }
+
+    /** @return the name of the spell */
+    public String getName() {
+        return spell.getName();
+    }
+
+    /** @return the {@link MagicElement} of the spell */
+    public MagicElement getElement() {
+        return spell.getElement();
+    }
+}
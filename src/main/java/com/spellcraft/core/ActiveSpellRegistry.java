@@ -0,0 +1,256 @@
+package com.spellcraft.core;
+
+import com.spellcraft.api.SpellCaster;
+import com.spellcraft.api.magic.MagicElement;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of all live {@link ActiveSpell}s.
+ * <p>
+ * Spells enter when they are tracked and leave as soon as they are removed. Besides the full set,
+ * the registry keeps indexes by world, chunk, caster and element so lookups only touch matching
+ * spells. Every index update is a constant-time hash operation, and empty buckets are dropped.
+ * <p>
+ * The chunk index follows spells as they move; the {@link SpellEngine} refreshes it after every
+ * {@link ActiveSpell#progress()} call. All methods are thread-safe.
+ */
+public final class ActiveSpellRegistry {
+
+    private final Set<ActiveSpell> all = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Set<ActiveSpell>> byWorld = new ConcurrentHashMap<>();
+    private final Map<ChunkKey, Set<ActiveSpell>> byChunk = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<ActiveSpell>> byCaster = new ConcurrentHashMap<>();
+    private final Map<MagicElement, Set<ActiveSpell>> byElement = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a spell and indexes it at its current location.
+     *
+     * @param spell the {@link ActiveSpell} to add
+     */
+    public void add(@NotNull ActiveSpell spell) {
+        synchronized (spell) {
+            if (spell.registry != null || spell.isRemoved()) return;
+
+            spell.registry = this;
+            all.add(spell);
+
+            UUID caster = casterId(spell);
+            if (caster != null) index(byCaster, caster, spell);
+
+            MagicElement element = spell.getElement();
+            if (element != null) index(byElement, element, spell);
+
+            place(spell, spell.getLocation());
+        }
+    }
+
+    /**
+     * Removes a spell from the registry and all indexes.
+     *
+     * @param spell the {@link ActiveSpell} to remove
+     */
+    public void remove(@NotNull ActiveSpell spell) {
+        synchronized (spell) {
+            if (spell.registry != this) return;
+
+            spell.registry = null;
+            all.remove(spell);
+
+            UUID caster = casterId(spell);
+            if (caster != null) unindex(byCaster, caster, spell);
+
+            MagicElement element = spell.getElement();
+            if (element != null) unindex(byElement, element, spell);
+
+            displace(spell);
+        }
+    }
+
+    /**
+     * Moves a spell to the world and chunk buckets of its current location, if it changed.
+     *
+     * @param spell the {@link ActiveSpell} that may have moved
+     */
+    public void relocate(@NotNull ActiveSpell spell) {
+        synchronized (spell) {
+            if (spell.registry != this) return;
+
+            Location location = spell.getLocation();
+            World world = location.getWorld();
+            if (world == null) return;
+
+            ChunkKey chunk = spell.indexedChunk;
+            if (chunk != null
+                    && chunk.world().equals(world.getUID())
+                    && chunk.key() == chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+                return;
+            }
+
+            displace(spell);
+            place(spell, location);
+        }
+    }
+
+    /** @return an unmodifiable view of every registered spell */
+    public Set<ActiveSpell> getAll() {
+        return Collections.unmodifiableSet(all);
+    }
+
+    /** @return the number of registered spells */
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * @param world the world
+     * @return an unmodifiable view of the spells in the given world
+     */
+    public Set<ActiveSpell> getByWorld(@NotNull World world) {
+        return view(byWorld.get(world.getUID()));
+    }
+
+    /**
+     * @param world  the world
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     * @return an unmodifiable view of the spells in the given chunk
+     */
+    public Set<ActiveSpell> getByChunk(@NotNull World world, int chunkX, int chunkZ) {
+        return view(byChunk.get(new ChunkKey(world.getUID(), chunkKey(chunkX, chunkZ))));
+    }
+
+    /**
+     * @param caster the caster's {@link UUID}
+     * @return an unmodifiable view of the spells cast by the given caster
+     */
+    public Set<ActiveSpell> getByCaster(@NotNull UUID caster) {
+        return view(byCaster.get(caster));
+    }
+
+    /**
+     * @param element the element
+     * @return an unmodifiable view of the active spells of the given element
+     */
+    public Set<ActiveSpell> getByElement(@NotNull MagicElement element) {
+        return view(byElement.get(element));
+    }
+
+    /**
+     * Finds the spells within a radius of a location, visiting only the chunks the radius covers.
+     *
+     * @param center the center of the search
+     * @param radius the search radius in blocks
+     * @return the spells whose location is within the radius
+     */
+    public List<ActiveSpell> getNear(@NotNull Location center, double radius) {
+        World world = center.getWorld();
+        if (world == null) return List.of();
+
+        UUID worldId = world.getUID();
+        double radiusSquared = radius * radius;
+
+        int minX = (int) Math.floor(center.getX() - radius) >> 4;
+        int maxX = (int) Math.floor(center.getX() + radius) >> 4;
+        int minZ = (int) Math.floor(center.getZ() - radius) >> 4;
+        int maxZ = (int) Math.floor(center.getZ() + radius) >> 4;
+
+        List<ActiveSpell> result = new ArrayList<>();
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                Set<ActiveSpell> bucket = byChunk.get(new ChunkKey(worldId, chunkKey(x, z)));
+                if (bucket == null) continue;
+
+                for (ActiveSpell spell : bucket) {
+                    Location location = spell.getLocation();
+                    if (location.getWorld() == world && location.distanceSquared(center) <= radiusSquared) {
+                        result.add(spell);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Empties the registry.
+     */
+    public void clear() {
+        for (ActiveSpell spell : all) {
+            remove(spell);
+        }
+    }
+
+    /**
+     * Packs chunk coordinates into a single key.
+     *
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     * @return the chunk key
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkZ << 32) | (chunkX & 0xFFFFFFFFL);
+    }
+
+    private void place(ActiveSpell spell, Location location) {
+        World world = location.getWorld();
+        if (world == null) return;
+
+        ChunkKey chunk = new ChunkKey(world.getUID(),
+                chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+
+        spell.indexedChunk = chunk;
+        index(byWorld, chunk.world(), spell);
+        index(byChunk, chunk, spell);
+    }
+
+    private void displace(ActiveSpell spell) {
+        ChunkKey chunk = spell.indexedChunk;
+        if (chunk == null) return;
+
+        spell.indexedChunk = null;
+        unindex(byWorld, chunk.world(), spell);
+        unindex(byChunk, chunk, spell);
+    }
+
+    private static UUID casterId(ActiveSpell spell) {
+        SpellCaster caster = spell.getCaster();
+        return caster == null ? null : caster.getUUID();
+    }
+
+    private static <K> void index(Map<K, Set<ActiveSpell>> index, K key, ActiveSpell spell) {
+        index.compute(key, (k, bucket) -> {
+            if (bucket == null) bucket = ConcurrentHashMap.newKeySet();
+            bucket.add(spell);
+            return bucket;
+        });
+    }
+
+    private static <K> void unindex(Map<K, Set<ActiveSpell>> index, K key, ActiveSpell spell) {
+        index.computeIfPresent(key, (k, bucket) -> {
+            bucket.remove(spell);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    private static Set<ActiveSpell> view(Set<ActiveSpell> bucket) {
+        return bucket == null ? Set.of() : Collections.unmodifiableSet(bucket);
+    }
+
+    /**
+     * A chunk of a specific world.
+     */
+    record ChunkKey(UUID world, long key) {
+    }
+}
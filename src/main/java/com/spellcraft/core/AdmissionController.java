@@ -0,0 +1,140 @@
+package com.spellcraft.core;
+
+import com.spellcraft.SpellCraftPlugin;
+import com.spellcraft.api.SpellCategory;
+import com.spellcraft.api.SpellResult;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.cjcrafter.foliascheduler.util.ServerVersions.isFolia;
+
+/**
+ * Decides whether new casts are admitted, based on how busy the server is where they are cast.
+ * <p>
+ * A cast is rejected with {@link SpellResult#SERVER_BUSY} when the milliseconds per tick, or the
+ * number of spells ticked in the same world (Paper) or region section (Folia), exceed the
+ * thresholds configured for the spell's {@link SpellCategory} under {@code admission}.
+ * <p>
+ * On Paper the MSPT is the server's average tick time. Folia has no global tick, so the time the
+ * {@link SpellEngine} spends per tick in the region is used instead, plus however far the region
+ * falls behind its 50 ms tick period.
+ */
+public final class AdmissionController {
+
+    private final SpellEngine engine;
+
+    private volatile boolean enabled;
+    private volatile boolean closed;
+    private volatile Map<SpellCategory, Thresholds> thresholds = Map.of();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public AdmissionController(@NotNull SpellEngine engine) {
+        this.engine = engine;
+        reload();
+    }
+
+    /**
+     * Re-reads the thresholds from the plugin config.
+     */
+    public void reload() {
+        FileConfiguration config = SpellCraftPlugin.getInstance().getConfig();
+
+        SpellConfig defaults = section(config, "admission.default");
+        Thresholds fallback = new Thresholds(
+                defaults.getDouble("max-mspt", 45.0),
+                defaults.getInt("max-spells", 500)
+        );
+        defaults.report("admission");
+
+        Map<SpellCategory, Thresholds> loaded = new EnumMap<>(SpellCategory.class);
+
+        for (SpellCategory category : SpellCategory.values()) {
+            SpellConfig section = section(config,
+                    "admission.categories." + category.name().toLowerCase(Locale.ROOT));
+
+            loaded.put(category, new Thresholds(
+                    section.getDouble("max-mspt", fallback.maxMspt()),
+                    section.getInt("max-spells", fallback.maxSpells())
+            ));
+            section.report("admission");
+        }
+
+        enabled = config.getBoolean("admission.enabled", true);
+        thresholds = loaded;
+    }
+
+    /**
+     * Checks whether a spell may be cast at a location right now.
+     *
+     * @param spell    the spell being cast
+     * @param location where it is cast
+     * @return {@link SpellResult#SUCCESS} if the cast is admitted, {@link SpellResult#SERVER_BUSY} otherwise
+     */
+    public SpellResult admit(@NotNull AbstractSpell spell, @NotNull Location location) {
+        if (closed) return SpellResult.SERVER_BUSY;
+        if (!enabled) return SpellResult.SUCCESS;
+
+        Thresholds limits = thresholds.get(spell.getCategory());
+        if (limits == null) return SpellResult.SUCCESS;
+
+        SpellEngine.Load load = engine.getLoad(location);
+        double mspt = isFolia() ? load.tickMillis() : Bukkit.getAverageTickTime();
+
+        if (mspt > limits.maxMspt() || load.spells() >= limits.maxSpells()) {
+            rejected.increment();
+            return SpellResult.SERVER_BUSY;
+        }
+
+        return SpellResult.SUCCESS;
+    }
+
+    /**
+     * Rejects every cast from now on, regardless of load. Used while the plugin shuts down.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /** @return the number of casts rejected since the last {@link #resetStats()} */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Resets the counter reported by {@link #getRejectedCount()}.
+     */
+    public void resetStats() {
+        rejected.reset();
+    }
+
+    /**
+     * @param category a spell category
+     * @return the thresholds applied to casts of that category
+     */
+    public Thresholds getThresholds(@NotNull SpellCategory category) {
+        return thresholds.get(category);
+    }
+
+    private static SpellConfig section(FileConfiguration config, String path) {
+        ConfigurationSection section = config.getConfigurationSection(path);
+        return new SpellConfig(path, section);
+    }
+
+    /**
+     * Load limits for casts of one category.
+     *
+     * @param maxMspt   casts are rejected while the milliseconds per tick exceed this
+     * @param maxSpells casts are rejected while this many spells are ticked in the same world or region
+     */
+    public record Thresholds(double maxMspt, int maxSpells) {
+    }
+}
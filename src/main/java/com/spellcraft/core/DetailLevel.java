@@ -0,0 +1,46 @@
+package com.spellcraft.core;
+
+/**
+ * Level of detail an {@link ActiveSpell} is simulated at, picked by the {@link SpellEngine} from
+ * the distance to the nearest player that can see it.
+ * <p>
+ * Lower levels progress spells less often, spawn fewer particles and sample beams more coarsely.
+ * Gameplay never changes: spells only run at a lower tick rate if they opt in through
+ * {@link ActiveSpell#getMaxTickInterval()} and cover the elapsed ticks themselves.
+ */
+public enum DetailLevel {
+
+    /** A player is close by: every tick, every particle. */
+    FULL(1, 1.0, 1.0),
+
+    /** The nearest player is at medium distance. */
+    REDUCED(2, 0.5, 2.0),
+
+    /** No player is close enough to see the spell's effects. */
+    MINIMAL(4, 0.0, 4.0);
+
+    private final int tickInterval;
+    private final double particleScale;
+    private final double sampleScale;
+
+    DetailLevel(int tickInterval, double particleScale, double sampleScale) {
+        this.tickInterval = tickInterval;
+        this.particleScale = particleScale;
+        this.sampleScale = sampleScale;
+    }
+
+    /** @return the number of ticks between two progress calls at this level */
+    public int getTickInterval() {
+        return tickInterval;
+    }
+
+    /** @return the share of requested particles that are spawned at this level, 0 for none */
+    public double getParticleScale() {
+        return particleScale;
+    }
+
+    /** @return the factor beams and other sampled shapes should stretch their sample spacing by */
+    public double getSampleScale() {
+        return sampleScale;
+    }
+}
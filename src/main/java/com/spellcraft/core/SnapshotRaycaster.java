@@ -0,0 +1,415 @@
+package com.spellcraft.core;
+
+import com.spellcraft.util.MutableVector;
+import com.spellcraft.util.ThreadUtil;
+import com.spellcraft.util.VoxelRay;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Runs long-range block raycasts off the tick thread, against {@link ChunkSnapshot}s of the
+ * chunks along the ray.
+ * <p>
+ * Snapshots are kept in a least recently used cache shared by all casts. A raycast walks the
+ * blocks along the ray asynchronously; when it reaches a chunk that is not cached, the snapshots
+ * of the chunks still ahead are taken on the threads owning them, and the walk resumes once they
+ * are in. Chunks that are not loaded end the ray instead of being loaded. The result is delivered
+ * on the caster's thread; a raycast that has not delivered within the configured timeout, for
+ * example because a hand-off was dropped, fails with a {@link TimeoutException}.
+ * <p>
+ * Snapshots go stale when blocks change: {@link com.spellcraft.listeners.RaycastCacheListener}
+ * drops the chunks players build in, break or blow up, and snapshots older than the configured
+ * age are taken again, which covers changes no event reports.
+ */
+public final class SnapshotRaycaster {
+
+    /** Most chunks ahead of a ray whose snapshots are requested in one go. */
+    private static final int MAX_PREFETCH = 16;
+
+    /** Cached snapshots in access order; guarded by {@code this}. */
+    private final LinkedHashMap<ChunkKey, Cached> snapshots;
+    private final long maxAgeMillis;
+    private final long timeoutMillis;
+
+    private final LongAdder traces = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity     the most chunk snapshots kept
+     * @param maxAgeMillis how long a snapshot is used before it is taken again
+     * @param timeoutTicks how long a raycast may take before its future fails, in ticks
+     */
+    public SnapshotRaycaster(int capacity, long maxAgeMillis, long timeoutTicks) {
+        int limit = Math.max(1, capacity);
+        this.maxAgeMillis = maxAgeMillis;
+        this.timeoutMillis = Math.max(1L, timeoutTicks) * 50L;
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ChunkKey, Cached> eldest) {
+                return size() > limit;
+            }
+        };
+    }
+
+    /**
+     * Finds the first solid block in the player's line of sight, like
+     * {@link Player#rayTraceBlocks(double)}, without reading blocks on the tick thread.
+     *
+     * @param player the player to trace from; must be called on the player's thread
+     * @param range  the maximum distance, in blocks
+     * @return the block hit, or null if none was within range; completed on the player's thread,
+     *         cancelled if the player leaves first, and failed if it times out
+     */
+    public CompletableFuture<Block> rayTraceBlocks(@NotNull Player player, double range) {
+        return rayTraceBlocks(player, range, VoxelRay.SOLID);
+    }
+
+    /**
+     * Finds the first block in the player's line of sight whose type matches a predicate.
+     *
+     * @param player the player to trace from; must be called on the player's thread
+     * @param range  the maximum distance, in blocks
+     * @param stop   which block types end the ray; runs off the tick thread
+     * @return the block hit, or null if none was within range; completed on the player's thread,
+     *         cancelled if the player leaves first, and failed if it times out
+     * @see #rayTraceBlocks(Player, double)
+     */
+    public CompletableFuture<Block> rayTraceBlocks(@NotNull Player player, double range,
+                                                   @NotNull Predicate<? super Material> stop) {
+        traces.increment();
+
+        // Hand-offs to an offline player or a stalled region are dropped without a word.
+        CompletableFuture<Block> future = new CompletableFuture<Block>().orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        Trace trace = new Trace(player.getEyeLocation(), range, stop);
+
+        ThreadUtil.runAsync(() -> walk(trace, player, future));
+        return future;
+    }
+
+    /**
+     * Drops the snapshot of a chunk whose blocks changed.
+     *
+     * @param world  the world of the chunk
+     * @param chunkX the chunk's x coordinate
+     * @param chunkZ the chunk's z coordinate
+     */
+    public synchronized void invalidate(@NotNull World world, int chunkX, int chunkZ) {
+        snapshots.remove(new ChunkKey(world.getUID(), ActiveSpellRegistry.chunkKey(chunkX, chunkZ)));
+    }
+
+    /**
+     * Drops every snapshot of a world.
+     *
+     * @param world the world
+     */
+    public synchronized void invalidate(@NotNull World world) {
+        UUID worldId = world.getUID();
+        snapshots.keySet().removeIf(key -> key.world().equals(worldId));
+    }
+
+    /** @return a snapshot of the raycast counters */
+    public Stats getStats() {
+        int cached;
+        synchronized (this) {
+            cached = snapshots.size();
+        }
+        return new Stats(traces.sum(), hits.sum(), misses.sum(), cached);
+    }
+
+    /**
+     * Raycast counters.
+     *
+     * @param traces raycasts started
+     * @param hits   chunks a raycast found in the cache
+     * @param misses chunks whose snapshot had to be taken
+     * @param cached chunk snapshots currently cached
+     */
+    public record Stats(long traces, long hits, long misses, int cached) {
+    }
+
+    /**
+     * Continues a trace off the tick thread until it ends or needs chunks that are not cached.
+     */
+    private void walk(Trace trace, Player player, CompletableFuture<Block> future) {
+        try {
+            if (trace.run(this)) {
+                fetch(trace, player, future);
+                return;
+            }
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            return;
+        }
+
+        if (!player.isOnline()) {
+            future.cancel(false);
+            return;
+        }
+
+        // Dropped if the player leaves in the meantime; the timeout then fails the future.
+        ThreadUtil.ensureEntity(player, () -> {
+            if (!player.isOnline()) {
+                future.cancel(false);
+                return;
+            }
+            future.complete(trace.hit ? trace.world.getBlockAt(trace.x, trace.y, trace.z) : null);
+        });
+    }
+
+    /**
+     * Takes the snapshots of the chunks ahead of a trace on the threads owning them, then resumes it.
+     */
+    private void fetch(Trace trace, Player player, CompletableFuture<Block> future) {
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        Set<Long> requested = new HashSet<>();
+
+        for (long chunk : trace.ahead()) {
+            if (trace.chunks.containsKey(chunk) || trace.unloaded.contains(chunk) || !requested.add(chunk)) continue;
+
+            // The chunk the walk stopped at was just looked up and missed.
+            ChunkSnapshot cached = chunk == trace.missing ? null : get(trace.worldId, chunk);
+            if (cached != null) {
+                trace.chunks.put(chunk, cached);
+                continue;
+            }
+
+            misses.increment();
+
+            int chunkX = (int) chunk;
+            int chunkZ = (int) (chunk >> 32);
+
+            CompletableFuture<Void> load = new CompletableFuture<>();
+            loads.add(load);
+
+            ThreadUtil.ensureLocation(new Location(trace.world, chunkX << 4, 0, chunkZ << 4), () -> {
+                try {
+                    if (trace.world.isChunkLoaded(chunkX, chunkZ)) {
+                        ChunkSnapshot snapshot = trace.world.getChunkAt(chunkX, chunkZ)
+                                .getChunkSnapshot(false, false, false);
+                        put(trace.worldId, chunk, snapshot);
+                        trace.chunks.put(chunk, snapshot);
+                    } else {
+                        trace.unloaded.add(chunk);
+                    }
+                } finally {
+                    load.complete(null);
+                }
+            });
+        }
+
+        CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new))
+                .thenRun(() -> ThreadUtil.runAsync(() -> walk(trace, player, future)));
+    }
+
+    private synchronized ChunkSnapshot get(UUID world, long chunk) {
+        ChunkKey key = new ChunkKey(world, chunk);
+        Cached cached = snapshots.get(key);
+
+        if (cached == null || System.currentTimeMillis() - cached.takenAt() > maxAgeMillis) {
+            if (cached != null) snapshots.remove(key);
+            return null;
+        }
+
+        hits.increment();
+        return cached.snapshot();
+    }
+
+    private synchronized void put(UUID world, long chunk, ChunkSnapshot snapshot) {
+        snapshots.put(new ChunkKey(world, chunk), new Cached(snapshot, System.currentTimeMillis()));
+    }
+
+    /**
+     * Identifies a cached chunk.
+     */
+    private record ChunkKey(UUID world, long chunk) {
+    }
+
+    private record Cached(ChunkSnapshot snapshot, long takenAt) {
+    }
+
+    /**
+     * State of one raycast, walking the blocks along the ray in order (Amanatides–Woo) so it can
+     * stop for missing chunks and resume where it left off.
+     */
+    private static final class Trace {
+
+        private final World world;
+        private final UUID worldId;
+        private final Predicate<? super Material> stop;
+        private final double range;
+        private final int minY;
+        private final int maxY;
+
+        private final double originX;
+        private final double originZ;
+        private final double dirX;
+        private final double dirZ;
+
+        private final int stepX;
+        private final int stepY;
+        private final int stepZ;
+        private final double deltaX;
+        private final double deltaY;
+        private final double deltaZ;
+
+        private int x;
+        private int y;
+        private int z;
+        private double nextX;
+        private double nextY;
+        private double nextZ;
+        private double distance;
+        private boolean hit;
+
+        /** Chunk the walk last stopped at for lack of a snapshot. */
+        private long missing;
+
+        /** Snapshots of the chunks this trace reached, and chunks found unloaded. */
+        private final Map<Long, ChunkSnapshot> chunks = new ConcurrentHashMap<>();
+        private final Set<Long> unloaded = ConcurrentHashMap.newKeySet();
+
+        private Trace(Location eye, double range, Predicate<? super Material> stop) {
+            this.world = eye.getWorld();
+            this.worldId = world.getUID();
+            this.stop = stop;
+            this.range = range;
+            this.minY = world.getMinHeight();
+            this.maxY = world.getMaxHeight();
+
+            MutableVector direction = new MutableVector().setDirection(eye);
+            dirX = direction.getX();
+            double dirY = direction.getY();
+            dirZ = direction.getZ();
+
+            originX = eye.getX();
+            originZ = eye.getZ();
+
+            x = eye.getBlockX();
+            y = eye.getBlockY();
+            z = eye.getBlockZ();
+
+            stepX = dirX > 0 ? 1 : dirX < 0 ? -1 : 0;
+            stepY = dirY > 0 ? 1 : dirY < 0 ? -1 : 0;
+            stepZ = dirZ > 0 ? 1 : dirZ < 0 ? -1 : 0;
+
+            deltaX = stepX == 0 ? Double.MAX_VALUE : Math.abs(1.0 / dirX);
+            deltaY = stepY == 0 ? Double.MAX_VALUE : Math.abs(1.0 / dirY);
+            deltaZ = stepZ == 0 ? Double.MAX_VALUE : Math.abs(1.0 / dirZ);
+
+            nextX = stepX == 0 ? Double.MAX_VALUE : (stepX > 0 ? x + 1 - eye.getX() : eye.getX() - x) * deltaX;
+            nextY = stepY == 0 ? Double.MAX_VALUE : (stepY > 0 ? y + 1 - eye.getY() : eye.getY() - y) * deltaY;
+            nextZ = stepZ == 0 ? Double.MAX_VALUE : (stepZ > 0 ? z + 1 - eye.getZ() : eye.getZ() - z) * deltaZ;
+        }
+
+        /**
+         * Walks on until the ray ends or reaches a chunk without a snapshot.
+         *
+         * @return true if it stopped for a missing chunk, false if it ended; see {@link #hit}
+         */
+        boolean run(SnapshotRaycaster cache) {
+            while (true) {
+                if (y >= minY && y < maxY) {
+                    long chunk = ActiveSpellRegistry.chunkKey(x >> 4, z >> 4);
+                    ChunkSnapshot snapshot = chunks.get(chunk);
+
+                    if (snapshot == null) {
+                        if (unloaded.contains(chunk)) return false;
+
+                        snapshot = cache.get(worldId, chunk);
+                        if (snapshot == null) {
+                            missing = chunk;
+                            return true;
+                        }
+
+                        chunks.put(chunk, snapshot);
+                    }
+
+                    if (stop.test(snapshot.getBlockType(x & 15, y, z & 15))) {
+                        hit = true;
+                        return false;
+                    }
+                } else if (y < minY ? stepY <= 0 : stepY >= 0) {
+                    // Outside the world's height and not heading back in.
+                    return false;
+                }
+
+                if (nextX <= nextY && nextX <= nextZ) {
+                    distance = nextX;
+                    x += stepX;
+                    nextX += deltaX;
+                } else if (nextY <= nextZ) {
+                    distance = nextY;
+                    y += stepY;
+                    nextY += deltaY;
+                } else {
+                    distance = nextZ;
+                    z += stepZ;
+                    nextZ += deltaZ;
+                }
+
+                if (distance > range) return false;
+            }
+        }
+
+        /**
+         * @return the chunk the walk stopped at, then the chunks the rest of the ray passes
+         *         through, nearest first, at most {@value #MAX_PREFETCH}
+         */
+        long[] ahead() {
+            double px = originX + dirX * distance;
+            double pz = originZ + dirZ * distance;
+            double left = range - distance;
+
+            int cx = (int) Math.floor(px) >> 4;
+            int cz = (int) Math.floor(pz) >> 4;
+
+            double cellX = stepX == 0 ? Double.MAX_VALUE : 16 * deltaX;
+            double cellZ = stepZ == 0 ? Double.MAX_VALUE : 16 * deltaZ;
+            double edgeX = stepX == 0 ? Double.MAX_VALUE
+                    : (stepX > 0 ? ((cx + 1) << 4) - px : px - (cx << 4)) * deltaX;
+            double edgeZ = stepZ == 0 ? Double.MAX_VALUE
+                    : (stepZ > 0 ? ((cz + 1) << 4) - pz : pz - (cz << 4)) * deltaZ;
+
+            long[] ahead = new long[MAX_PREFETCH + 1];
+            ahead[0] = missing;
+            int count = 1;
+
+            while (count <= MAX_PREFETCH) {
+                ahead[count++] = ActiveSpellRegistry.chunkKey(cx, cz);
+
+                if (Math.min(edgeX, edgeZ) > left) break;
+
+                if (edgeX <= edgeZ) {
+                    cx += stepX;
+                    edgeX += cellX;
+                } else {
+                    cz += stepZ;
+                    edgeZ += cellZ;
+                }
+            }
+
+            return Arrays.copyOf(ahead, count);
+        }
+    }
+}
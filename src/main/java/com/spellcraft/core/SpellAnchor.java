@@ -0,0 +1,25 @@
+package com.spellcraft.core;
+
+/**
+ * What an {@link ActiveSpell} is tied to, which decides the thread the {@link SpellEngine}
+ * progresses it on.
+ * <p>
+ * On Folia every region is ticked by its own thread, and a spell may only touch blocks and
+ * entities of the region it runs in. The engine hands spells over to another region's thread
+ * whenever their anchor leaves the region they are ticked in. On Paper all worlds share the main
+ * thread, and spells only change tickers when they change worlds.
+ */
+public enum SpellAnchor {
+
+    /** Stays where it was cast and is never handed over. */
+    FIXED,
+
+    /** Follows {@link ActiveSpell#getLocation()}, such as a projectile. */
+    MOVING,
+
+    /**
+     * Follows {@link ActiveSpell#getAnchorEntity()}, such as a spell carrying its caster. The
+     * entity's own scheduler hands the spell over when the entity changes regions.
+     */
+    ENTITY
+}
@@ -6,11 +6,13 @@ import com.spellcraft.api.event.SpellFailEvent;
 import com.spellcraft.api.event.SpellPreCastEvent;
 import com.spellcraft.api.house.House;
 import com.spellcraft.util.HouseUtil;
+import com.spellcraft.util.TaskScope;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of SpellCaster interface.
@@ -24,12 +26,15 @@ public class SpellCasterImpl implements SpellCaster {
     private int magic;
     private int maxMagic;
 
-    private final Set<Spell> learnedSpells = new HashSet<>();
+    // Spells apply cooldowns from whichever region thread ticks them, not only the caster's.
+    private final Set<Spell> learnedSpells = ConcurrentHashMap.newKeySet();
     private final Spell[] boundSpells = new Spell[9];
-    private final Map<Spell, Long> cooldowns = new HashMap<>();
+    private final Map<Spell, Long> cooldowns = new ConcurrentHashMap<>();
 
     private House house;
 
+    private final TaskScope tasks = new TaskScope();
+
     public SpellCasterImpl(Player player, int maxMagic) {
         this.uuid = player.getUniqueId();
         this.player = player;
@@ -179,8 +184,10 @@ public class SpellCasterImpl implements SpellCaster {
     @Override
     public boolean isOnCooldown(Spell spell) {
         Long end = cooldowns.get(spell);
-        if (end == null || System.currentTimeMillis() >= end) {
-            cooldowns.remove(spell);
+        if (end == null) return false;
+        if (System.currentTimeMillis() >= end) {
+            // Only drop the expired entry, never one set by another thread in the meantime.
+            cooldowns.remove(spell, end);
             return false;
         }
         return true;
@@ -264,4 +271,9 @@ public class SpellCasterImpl implements SpellCaster {
     public boolean hasHouse() {
         return house != null;
     }
+
+    @Override
+    public TaskScope getTasks() {
+        return tasks;
+    }
 }
@@ -7,13 +7,14 @@ import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class SpellCasterManager {
 
-    private final Map<UUID, SpellCaster> casters = new HashMap<>();
+    /** Read from region threads and the global thread alike. */
+    private final Map<UUID, SpellCaster> casters = new ConcurrentHashMap<>();
     private final int defaultMaxMagic;
     private final SpellCraftPlugin plugin;
 
@@ -38,9 +39,10 @@ public class SpellCasterManager {
         SpellCaster existing = casters.get(uuid);
         if (existing != null) return existing;
 
+        // Loaded outside the map so a slow read never blocks other players' lookups.
         SpellCaster loaded = plugin.getPlayerDataManager().load(player);
-        casters.put(uuid, loaded);
-        return loaded;
+        SpellCaster raced = casters.putIfAbsent(uuid, loaded);
+        return raced != null ? raced : loaded;
     }
 
     /**
@@ -51,10 +53,11 @@ public class SpellCasterManager {
     }
 
     /**
-     * Removes a caster from memory (does NOT save).
+     * Removes a caster from memory (does NOT save) and cancels the tasks of its session.
      */
     public void removeCaster(UUID uuid) {
-        casters.remove(uuid);
+        SpellCaster removed = casters.remove(uuid);
+        if (removed != null) removed.getTasks().close();
     }
 
     /**
@@ -65,10 +68,11 @@ public class SpellCasterManager {
     }
 
     /**
-     * Clears all loaded casters from memory.
+     * Clears all loaded casters from memory and cancels the tasks of their sessions.
      * Should be called AFTER saveAll().
      */
     public void clearCasters() {
+        casters.values().forEach(caster -> caster.getTasks().close());
         casters.clear();
     }
 
@@ -96,6 +100,6 @@ public class SpellCasterManager {
      * Starts a repeating async task that saves all loaded players periodically.
      */
     private void startAutoSaveTask() {
-        ThreadUtil.runAsyncTimer(this::saveAll, AUTO_SAVE_INTERVAL_TICKS, AUTO_SAVE_INTERVAL_TICKS);
+        ThreadUtil.runAsyncTimer(this::saveAll, AUTO_SAVE_INTERVAL_TICKS, AUTO_SAVE_INTERVAL_TICKS, "Caster auto-save");
     }
 }
@@ -0,0 +1,195 @@
+package com.spellcraft.core;
+
+import com.spellcraft.SpellCraftPlugin;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typed, validating reader for a spell's {@code spells.<key>} config section.
+ * <p>
+ * Used once per load or reload to build a spell's immutable settings; hot paths never touch the
+ * YAML tree. Missing values fall back to their defaults silently, while values of the wrong type or
+ * out of range fall back to their defaults and are reported by {@link #report(String)}.
+ */
+public final class SpellConfig {
+
+    private final String path;
+    private final ConfigurationSection section;
+    private final List<String> errors = new ArrayList<>();
+
+    /**
+     * @param path the full path of the section, used in error messages
+     * @param section the section to read, or null if it does not exist
+     */
+    public SpellConfig(@NotNull String path, @Nullable ConfigurationSection section) {
+        this.path = path;
+        this.section = section;
+    }
+
+    /**
+     * Creates a reader for {@code spells.<key>} of the plugin config.
+     *
+     * @param key the spell's config key
+     * @return a {@link SpellConfig} for the section
+     */
+    public static SpellConfig of(@NotNull String key) {
+        String path = "spells." + key;
+        return new SpellConfig(path, SpellCraftPlugin.getInstance().getConfig().getConfigurationSection(path));
+    }
+
+    /**
+     * Creates a reader without a backing section, so every getter returns its default. Spells use
+     * it to build their initial settings before the config is first bound.
+     *
+     * @param key the spell's config key
+     * @return a {@link SpellConfig} that yields only defaults
+     */
+    public static SpellConfig empty(@NotNull String key) {
+        return new SpellConfig("spells." + key, null);
+    }
+
+    /**
+     * Reads a number.
+     *
+     * @param key the key inside the section
+     * @param def the value to use if missing or invalid
+     * @param min the smallest valid value
+     * @param max the largest valid value
+     * @return the configured value, or {@code def}
+     */
+    public double getDouble(@NotNull String key, double def, double min, double max) {
+        Number number = number(key);
+        if (number == null) return def;
+
+        double value = number.doubleValue();
+        if (value < min || value > max || Double.isNaN(value)) {
+            return invalid(key, value, "must be between " + min + " and " + max, def);
+        }
+        return value;
+    }
+
+    /**
+     * Reads a non-negative number.
+     *
+     * @see #getDouble(String, double, double, double)
+     */
+    public double getDouble(@NotNull String key, double def) {
+        return getDouble(key, def, 0.0, Double.MAX_VALUE);
+    }
+
+    /**
+     * Reads a whole number.
+     *
+     * @param key the key inside the section
+     * @param def the value to use if missing or invalid
+     * @param min the smallest valid value
+     * @param max the largest valid value
+     * @return the configured value, or {@code def}
+     */
+    public int getInt(@NotNull String key, int def, int min, int max) {
+        return (int) getLong(key, def, min, max);
+    }
+
+    /**
+     * Reads a non-negative whole number.
+     *
+     * @see #getInt(String, int, int, int)
+     */
+    public int getInt(@NotNull String key, int def) {
+        return getInt(key, def, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads a whole number.
+     *
+     * @param key the key inside the section
+     * @param def the value to use if missing or invalid
+     * @param min the smallest valid value
+     * @param max the largest valid value
+     * @return the configured value, or {@code def}
+     */
+    public long getLong(@NotNull String key, long def, long min, long max) {
+        Number number = number(key);
+        if (number == null) return def;
+
+        if (number instanceof Double || number instanceof Float) {
+            double raw = number.doubleValue();
+            if (raw != Math.rint(raw)) return invalid(key, raw, "must be a whole number", def);
+        }
+
+        long value = number.longValue();
+        if (value < min || value > max) {
+            return invalid(key, value, "must be between " + min + " and " + max, def);
+        }
+        return value;
+    }
+
+    /**
+     * Reads a non-negative whole number.
+     *
+     * @see #getLong(String, long, long, long)
+     */
+    public long getLong(@NotNull String key, long def) {
+        return getLong(key, def, 0L, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads a boolean.
+     *
+     * @param key the key inside the section
+     * @param def the value to use if missing or invalid
+     * @return the configured value, or {@code def}
+     */
+    public boolean getBoolean(@NotNull String key, boolean def) {
+        Object raw = raw(key);
+        if (raw == null) return def;
+        if (raw instanceof Boolean bool) return bool;
+        return invalid(key, raw, "must be true or false", def);
+    }
+
+    /** @return the problems found so far */
+    public List<String> getErrors() {
+        return List.copyOf(errors);
+    }
+
+    /**
+     * Logs every problem found while reading.
+     *
+     * @param spellName the spell the section belongs to
+     */
+    public void report(@NotNull String spellName) {
+        for (String error : errors) {
+            SpellCraftPlugin.log.warning("Invalid config for " + spellName + ": " + error);
+        }
+    }
+
+    private Object raw(String key) {
+        return section == null ? null : section.get(key);
+    }
+
+    private Number number(String key) {
+        Object raw = raw(key);
+        if (raw == null) return null;
+        if (raw instanceof Number number) return number;
+
+        if (raw instanceof String string) {
+            try {
+                return Double.parseDouble(string.trim());
+            } catch (NumberFormatException ignored) {
+                // reported below
+            }
+        }
+
+        errors.add(path + "." + key + " = '" + raw + "' is not a number, using default");
+        return null;
+    }
+
+    private <T> T invalid(String key, Object value, String reason, T def) {
+        errors.add(path + "." + key + " = " + value + " " + reason + ", using " + def);
+        return def;
+    }
+}
@@ -0,0 +1,1043 @@
+package com.spellcraft.core;
+
+import com.spellcraft.SpellCraftPlugin;
+import com.spellcraft.api.SpellCaster;
+import com.spellcraft.util.BlockMemo;
+import com.spellcraft.util.EntityGrid;
+import com.spellcraft.util.ParticleEffect;
+import com.spellcraft.util.ThreadUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+import static com.cjcrafter.foliascheduler.util.ServerVersions.isFolia;
+import static com.spellcraft.SpellCraftPlugin.scheduler;
+import static com.spellcraft.util.ThreadUtil.SECTION_SHIFT;
+
+/**
+ * Drives {@link ActiveSpell#progress()} for every tracked spell.
+ * <p>
+ * Instead of one scheduler timer per cast, the engine keeps a single ticker per world on Paper
+ * and one per region section on Folia. Each ticker walks its spells in a tight loop once per
+ * tick and stops itself as soon as it has nothing left to tick.
+ * <p>
+ * A spell tracked from the thread that owns its location gets its first {@link ActiveSpell#progress()}
+ * call immediately, in the same tick it was cast.
+ * <p>
+ * Progress is time-sliced: every ticking thread may spend at most {@code engine.tick-budget-ms}
+ * per tick on spells. Spells are progressed by rank, see {@link ActiveSpell#getPriority()}, and
+ * those that do not fit are deferred to the next tick, where they rank higher the longer they wait.
+ * <p>
+ * Every spell is also assigned a {@link DetailLevel} from the distance to the nearest player and
+ * the number of players watching it. Spells far from everyone spawn fewer or no particles, and
+ * those that opt in through {@link ActiveSpell#getMaxTickInterval()} are progressed less often.
+ * <p>
+ * A spell whose location is in an unloaded chunk is never progressed, so it can neither keep the
+ * chunk loaded nor load it synchronously. Spells that {@link ActiveSpell#canHibernate() can hibernate}
+ * are suspended without any ticker or registry entry until {@link #wake(World, int, int)} is called
+ * for their chunk, or dropped after {@code engine.hibernation.max-seconds}. All others are removed.
+ * <p>
+ * Spells are ticked by the thread that owns their {@link ActiveSpell#getAnchor() anchor}. When a
+ * moving spell crosses into another region, or the entity an entity-anchored spell follows does,
+ * the spell is handed over to the ticker of its new region; entity-anchored spells travel through
+ * the entity's own scheduler, so they arrive on whichever thread owns the entity by then.
+ * <p>
+ * On Paper every spell runs on the main thread. With {@code engine.parallel.enabled}, spells that
+ * are {@link ActiveSpell#isTwoPhase() two-phase} first capture what they need from the world on
+ * the main thread; their compute steps then run together on a pool of worker threads, and
+ * {@link ActiveSpell#progress()} applies the results on the main thread again. Folia already ticks
+ * regions in parallel and always runs all steps on the region thread.
+ * <p>
+ * While a ticker progresses its spells, it installs an {@link EntityGrid} and a {@link BlockMemo}
+ * of its world or region section for the thread, so all entity lookups of a tick share a single
+ * pass over the entities and each block traced through is read from the world once per tick.
+ */
+public final class SpellEngine {
+
+    /** Length of a server tick in milliseconds. */
+    private static final double TICK_MILLIS = 50.0;
+
+    /** Rank gained per priority level, in blocks of caster distance. */
+    private static final double PRIORITY_WEIGHT = 64.0;
+
+    /** Rank gained per tick a spell has been deferred, in blocks of caster distance. */
+    private static final double AGING_WEIGHT = 16.0;
+
+    /** Caster distance beyond which a spell's rank stops dropping. */
+    private static final double MAX_RANK_DISTANCE = 128.0;
+
+    /** Tickers running on the same thread within this window share one tick budget. */
+    private static final long BUDGET_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(25);
+
+    /** Spells per task once a parallel compute batch is split up. */
+    private static final int COMPUTE_LEAF_SIZE = 4;
+
+    /** Ticks between two level of detail evaluations of the same spell. */
+    private static final int DETAIL_REFRESH_TICKS = 10;
+
+    /** Tick budget of the current thread. */
+    private static final ThreadLocal<TickBudget> BUDGET = ThreadLocal.withInitial(TickBudget::new);
+
+    private static final Comparator<ActiveSpell> BY_RANK =
+            (a, b) -> Double.compare(b.rank, a.rank);
+
+    /** Registry of every live spell. */
+    private final ActiveSpellRegistry registry;
+
+    /** Running tickers by world (Paper) or region section (Folia). */
+    private final Map<TickerKey, Ticker> tickers = new ConcurrentHashMap<>();
+
+    /** Spells suspended until their chunk loads. */
+    private final SpellHibernation hibernation = new SpellHibernation();
+
+    /** Drops hibernating spells that waited too long. */
+    private final ThreadUtil.ThreadTask hibernationSweep;
+
+    /** Maximum time per tick and thread spent progressing spells, or 0 for no limit. */
+    private volatile long budgetNanos;
+
+    private volatile boolean lodEnabled;
+    private volatile double fullDetailDistanceSquared;
+    private volatile double reducedDetailDistanceSquared;
+    private volatile int crowdSize;
+
+    /** How long a spell may hibernate before it is dropped, in milliseconds. */
+    private volatile long maxHibernationMillis;
+
+    /** Runs the compute steps of two-phase spells, or null while parallel compute is off. */
+    private volatile ForkJoinPool computePool;
+
+    /** Fewest spells due in one tick worth handing to {@link #computePool}. */
+    private volatile int minParallelBatch;
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder progressed = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder thinned = new LongAdder();
+    private final LongAdder migrated = new LongAdder();
+    private final LongAdder computedInParallel = new LongAdder();
+    private final LongAdder overBudgetTicks = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAccumulator peakTickNanos = new LongAccumulator(Math::max, 0L);
+
+    public SpellEngine(@NotNull ActiveSpellRegistry registry) {
+        this.registry = registry;
+        reload();
+
+        hibernationSweep = ThreadUtil.runGlobalTimer(this::expireHibernating, 20L, 20L, "SpellEngine hibernation");
+    }
+
+    /**
+     * Re-reads the engine settings from the plugin config.
+     */
+    public void reload() {
+        var config = SpellCraftPlugin.getInstance().getConfig();
+
+        double budgetMillis = config.getDouble("engine.tick-budget-ms", 10.0);
+        budgetNanos = (long) (Math.max(0.0, budgetMillis) * 1_000_000L);
+
+        double fullDistance = Math.max(0.0, config.getDouble("engine.lod.full-distance", 32.0));
+        double reducedDistance = Math.max(fullDistance, config.getDouble("engine.lod.reduced-distance", 64.0));
+
+        lodEnabled = config.getBoolean("engine.lod.enabled", true);
+        fullDetailDistanceSquared = fullDistance * fullDistance;
+        reducedDetailDistanceSquared = reducedDistance * reducedDistance;
+        crowdSize = Math.max(1, config.getInt("engine.lod.crowd-size", 16));
+
+        maxHibernationMillis = (long) (Math.max(0.0, config.getDouble("engine.hibernation.max-seconds", 30.0)) * 1000L);
+
+        boolean parallel = !isFolia() && config.getBoolean("engine.parallel.enabled", false);
+        int threads = config.getInt("engine.parallel.threads", 0);
+        if (threads <= 0) threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        minParallelBatch = Math.max(2, config.getInt("engine.parallel.min-batch", 8));
+
+        ForkJoinPool current = computePool;
+        if (!parallel) {
+            computePool = null;
+        } else if (current == null || current.getParallelism() != threads) {
+            computePool = newComputePool(threads);
+        }
+        if (current != null && current != computePool) current.shutdown();
+    }
+
+    /**
+     * Starts ticking a spell.
+     *
+     * @param spell the {@link ActiveSpell} to tick
+     */
+    public void track(@NotNull ActiveSpell spell) {
+        registry.add(spell);
+
+        Location location = anchorOf(spell);
+
+        if (isOwnedByCurrentThread(location)) {
+            progressed.increment();
+            progress(spell);
+
+            if (spell.isRemoved()) {
+                release(spell);
+                return;
+            }
+
+            if (spell.hibernating) {
+                if (!park(spell)) release(spell);
+                return;
+            }
+
+            location = anchorOf(spell);
+        }
+
+        schedule(spell, location);
+    }
+
+    /**
+     * Resumes the hibernating spells waiting for a chunk. Call it once the chunk has loaded.
+     *
+     * @param world  the world of the chunk
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     */
+    public void wake(@NotNull World world, int chunkX, int chunkZ) {
+        if (hibernation.size() == 0) return;
+
+        long now = System.currentTimeMillis();
+
+        for (SpellHibernation.Sleeper sleeper : hibernation.take(world, chunkX, chunkZ)) {
+            ActiveSpell spell = sleeper.spell();
+
+            if (spell.isRemoved() || sleeper.isExpired(now)) {
+                expire(spell);
+                continue;
+            }
+
+            spell.hibernating = false;
+
+            try {
+                spell.onResume();
+            } catch (Exception e) {
+                SpellCraftPlugin.log.log(Level.WARNING, "Error resuming spell " + spell.getName(), e);
+                expire(spell);
+                continue;
+            }
+
+            spell.suspended = false;
+            registry.add(spell);
+
+            // A chunk that unloads and loads again within a tick leaves the spell with its ticker.
+            if (!spell.listed) schedule(spell, spell.getLocation());
+        }
+    }
+
+    /**
+     * Suspends every spell in a chunk that is about to unload, or removes those that cannot
+     * hibernate, while the chunk's blocks can still be changed without loading it again. Call it
+     * from the chunk unload event, on the thread owning the chunk; tickers drop the spells on
+     * their next tick.
+     *
+     * @param world  the world of the chunk
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     */
+    public void suspendChunk(@NotNull World world, int chunkX, int chunkZ) {
+        for (ActiveSpell spell : List.copyOf(registry.getByChunk(world, chunkX, chunkZ))) {
+            if (spell.isRemoved() || spell.suspended) continue;
+
+            spell.hibernating = true;
+            park(spell);
+        }
+    }
+
+    /**
+     * Removes every hibernating instance of a spell.
+     *
+     * @param spell the {@link AbstractSpell} whose instances to remove
+     */
+    public void removeHibernating(@NotNull AbstractSpell spell) {
+        hibernation.takeIf(sleeper -> sleeper.spell().getSpell() == spell).forEach(this::expire);
+    }
+
+    /** @return the number of hibernating spells */
+    public int getHibernatingCount() {
+        return hibernation.size();
+    }
+
+    /**
+     * Hands a spell to the ticker of its location, starting the ticker if needed.
+     */
+    private void schedule(ActiveSpell spell, Location location) {
+        Location anchor = location;
+        TickerKey key = TickerKey.of(location);
+        Ticker[] created = new Ticker[1];
+
+        tickers.compute(key, (k, ticker) -> {
+            if (ticker == null) {
+                ticker = new Ticker(k, anchor.clone());
+                created[0] = ticker;
+            }
+            ticker.pending.add(spell);
+            return ticker;
+        });
+
+        if (created[0] != null) created[0].start();
+    }
+
+    /**
+     * Hands a spell moving between tickers to the ticker at its new location. Its next progress
+     * call is pushed back a tick, so it is not progressed twice if the new ticker has yet to run
+     * in the current tick.
+     */
+    private void arrive(ActiveSpell spell, Location location) {
+        spell.elapsedTicks = -1;
+        schedule(spell, location);
+    }
+
+    /**
+     * Reports how busy the ticker is that would tick a spell at the given location.
+     *
+     * @param location the location
+     * @return the load of the world (Paper) or region section (Folia), or {@link Load#IDLE} if nothing ticks there
+     */
+    public Load getLoad(@NotNull Location location) {
+        Ticker ticker = tickers.get(TickerKey.of(location));
+        if (ticker == null) return Load.IDLE;
+
+        // A region that falls behind spends more than a tick period per tick, not all of it on spells.
+        double behind = Math.max(0.0, ticker.intervalMillis - TICK_MILLIS);
+        return new Load(ticker.size, ticker.workMillis + behind);
+    }
+
+    /**
+     * Load of a single ticker.
+     *
+     * @param spells     spells the ticker is ticking
+     * @param tickMillis smoothed time the ticker spends per tick, plus however far its thread
+     *                   falls behind the 50 ms tick period; 0 where nothing ticks
+     */
+    public record Load(int spells, double tickMillis) {
+
+        /** The load of a place where nothing is ticking. */
+        public static final Load IDLE = new Load(0, 0.0);
+    }
+
+    /** @return the number of running tickers */
+    public int getTickerCount() {
+        return tickers.size();
+    }
+
+    /** @return a snapshot of the engine's counters since the last {@link #resetStats()} */
+    public Stats getStats() {
+        long tickCount = ticks.sum();
+        return new Stats(
+                tickers.size(),
+                registry.size(),
+                hibernation.size(),
+                tickCount,
+                progressed.sum(),
+                deferred.sum(),
+                thinned.sum(),
+                migrated.sum(),
+                computedInParallel.sum(),
+                overBudgetTicks.sum(),
+                tickCount == 0 ? 0.0 : busyNanos.sum() / (double) tickCount / 1_000_000.0,
+                peakTickNanos.get() / 1_000_000.0,
+                budgetNanos / 1_000_000.0
+        );
+    }
+
+    /**
+     * Resets all counters reported by {@link #getStats()}.
+     */
+    public void resetStats() {
+        ticks.reset();
+        progressed.reset();
+        deferred.reset();
+        thinned.reset();
+        migrated.reset();
+        computedInParallel.reset();
+        overBudgetTicks.reset();
+        busyNanos.reset();
+        peakTickNanos.reset();
+    }
+
+    /**
+     * Engine counters.
+     *
+     * @param tickers          running tickers
+     * @param activeSpells     spells currently tracked
+     * @param hibernating      spells suspended in unloaded chunks
+     * @param ticks            ticker runs
+     * @param progressed       {@link ActiveSpell#progress()} calls
+     * @param deferred         progress calls pushed to a later tick by the budget
+     * @param thinned          progress calls skipped because of a spell's level of detail
+     * @param migrated         spells handed over to another world's or region's ticker
+     * @param parallelComputed compute steps of two-phase spells run on the worker pool
+     * @param overBudgetTicks  ticker runs that had to defer spells
+     * @param avgTickMillis    average time of a ticker run
+     * @param peakTickMillis   longest ticker run
+     * @param budgetMillis     configured budget per tick and thread, 0 if unlimited
+     */
+    public record Stats(int tickers, int activeSpells, int hibernating, long ticks, long progressed, long deferred,
+                        long thinned, long migrated, long parallelComputed, long overBudgetTicks,
+                        double avgTickMillis, double peakTickMillis, double budgetMillis) {
+    }
+
+    /**
+     * Removes every active and hibernating spell on the calling thread. Only meant for shutdown,
+     * once no ticker runs anymore.
+     *
+     * @return the number of spells removed
+     */
+    public int removeAll() {
+        int removed = 0;
+
+        for (ActiveSpell spell : registry.getAll()) {
+            if (spell.isRemoved()) continue;
+
+            try {
+                spell.remove();
+                removed++;
+            } catch (Exception e) {
+                SpellCraftPlugin.log.log(Level.WARNING, "Error removing spell " + spell.getName(), e);
+            }
+        }
+
+        for (ActiveSpell spell : hibernation.takeIf(sleeper -> true)) {
+            try {
+                expire(spell);
+                removed++;
+            } catch (Exception e) {
+                SpellCraftPlugin.log.log(Level.WARNING, "Error removing spell " + spell.getName(), e);
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Stops every ticker and forgets all tracked spells.
+     */
+    public void shutdown() {
+        hibernationSweep.cancel();
+
+        ForkJoinPool pool = computePool;
+        computePool = null;
+        if (pool != null) pool.shutdown();
+
+        tickers.values().forEach(Ticker::cancel);
+        tickers.clear();
+        hibernation.takeIf(sleeper -> true);
+        registry.clear();
+    }
+
+    /**
+     * Runs one progress step of a spell at its particle scale, removing it if it throws,
+     * and keeps its registry entry in sync with where it moved. Two-phase spells whose compute
+     * step did not run ahead on the pool capture and compute here first.
+     */
+    private void progress(ActiveSpell spell) {
+        double particleScale = spell.particleScale;
+        if (particleScale != 1.0) ParticleEffect.setAmountScale(particleScale);
+
+        boolean computed = spell.computed;
+        spell.computed = false;
+
+        try {
+            if (!computed && spell.isTwoPhase()) {
+                spell.capture();
+                spell.compute();
+            }
+            spell.progress();
+        } catch (Exception e) {
+            SpellCraftPlugin.log.log(Level.WARNING, "Error progressing spell " + spell.getName(), e);
+            spell.remove();
+        } finally {
+            if (particleScale != 1.0) ParticleEffect.setAmountScale(1.0);
+        }
+
+        if (!spell.isRemoved()) registry.relocate(spell);
+    }
+
+    /**
+     * Runs the compute step of a captured spell. A spell whose compute step throws is left
+     * uncomputed; {@link #progress(ActiveSpell)} then runs both steps again on the owning thread
+     * and removes it if they still fail.
+     */
+    private static void runCompute(ActiveSpell spell) {
+        try {
+            spell.compute();
+            spell.computed = true;
+        } catch (Exception ignored) {
+            // Retried and reported by progress(ActiveSpell).
+        }
+    }
+
+    private static ForkJoinPool newComputePool(int threads) {
+        AtomicInteger ids = new AtomicInteger();
+
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("SpellCraft-Compute-" + ids.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Forgets a removed spell.
+     */
+    private void release(ActiveSpell spell) {
+        registry.remove(spell);
+    }
+
+    /**
+     * Suspends a spell whose chunk is not loaded or unloading, or removes it if it cannot
+     * hibernate. A removed spell still has to be {@link #release(ActiveSpell) released} by
+     * whoever holds it.
+     *
+     * @return true if the spell was suspended, false if it was removed
+     */
+    private boolean park(ActiveSpell spell) {
+        registry.remove(spell);
+
+        if (spell.canHibernate()) {
+            try {
+                spell.onHibernate();
+
+                spell.suspended = true;
+                if (hibernation.add(spell, System.currentTimeMillis() + maxHibernationMillis)) return true;
+                spell.suspended = false;
+            } catch (Exception e) {
+                SpellCraftPlugin.log.log(Level.WARNING, "Error suspending spell " + spell.getName(), e);
+            }
+        }
+
+        spell.remove();
+        return false;
+    }
+
+    /**
+     * Removes a spell that cannot be resumed.
+     */
+    private void expire(ActiveSpell spell) {
+        spell.remove();
+        release(spell);
+    }
+
+    /**
+     * Drops hibernating spells that expired or were removed while suspended.
+     */
+    private void expireHibernating() {
+        if (hibernation.size() == 0) return;
+
+        long now = System.currentTimeMillis();
+        hibernation.takeIf(sleeper -> sleeper.spell().isRemoved() || sleeper.isExpired(now))
+                .forEach(this::expire);
+    }
+
+    /**
+     * Ranks a spell for this tick: higher priority, more deferred ticks and a shorter
+     * distance to its caster all move it forward.
+     */
+    private static double rank(ActiveSpell spell, Location scratch) {
+        double rank = spell.getPriority() * PRIORITY_WEIGHT + spell.deferredTicks * AGING_WEIGHT;
+
+        SpellCaster caster = spell.getCaster();
+        Player player = caster == null ? null : caster.getPlayer();
+        if (player == null) return rank;
+
+        Location location = spell.getLocation();
+        Location casterLocation = player.getLocation(scratch);
+        if (location.getWorld() != casterLocation.getWorld()) return rank - MAX_RANK_DISTANCE;
+
+        return rank - Math.min(MAX_RANK_DISTANCE, location.distance(casterLocation));
+    }
+
+    /**
+     * @return where the thread ticking a spell should be picked from: the location of the entity
+     * an entity-anchored spell follows, otherwise the spell's own location
+     */
+    private static Location anchorOf(ActiveSpell spell) {
+        if (spell.getAnchor() == SpellAnchor.ENTITY) {
+            Entity entity = spell.getAnchorEntity();
+            if (entity != null && entity.isValid()) return entity.getLocation();
+        }
+        return spell.getLocation();
+    }
+
+    private static boolean isOwnedByCurrentThread(Location location) {
+        if (isFolia()) return scheduler.isOwnedByCurrentRegion(location);
+        return Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * Time already spent on spells by the current thread in its current tick.
+     */
+    private static final class TickBudget {
+
+        private long windowStart;
+        private long used;
+
+        /**
+         * @return the time left in this thread's budget, starting a new window if the last one expired
+         */
+        long remaining(long now, long budget) {
+            if (now - windowStart > BUDGET_WINDOW_NANOS) {
+                windowStart = now;
+                used = 0;
+            }
+            return Math.max(0, budget - used);
+        }
+    }
+
+    /**
+     * Computes a batch of captured spells on the worker pool, splitting it in halves.
+     */
+    private static final class ComputeTask extends RecursiveAction {
+
+        private final List<ActiveSpell> spells;
+        private final int from;
+        private final int to;
+
+        private ComputeTask(List<ActiveSpell> spells, int from, int to) {
+            this.spells = spells;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= COMPUTE_LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    runCompute(spells.get(i));
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ComputeTask(spells, from, middle), new ComputeTask(spells, middle, to));
+        }
+    }
+
+    /**
+     * Identifies a ticker: the world on Paper, the world and region section on Folia.
+     */
+    private record TickerKey(UUID world, int x, int z) {
+
+        static TickerKey of(Location location) {
+            World world = location.getWorld();
+            UUID worldId = world == null ? null : world.getUID();
+
+            if (!isFolia()) return new TickerKey(worldId, 0, 0);
+
+            return new TickerKey(worldId,
+                    location.getBlockX() >> SECTION_SHIFT,
+                    location.getBlockZ() >> SECTION_SHIFT);
+        }
+
+        /** @return true if the location belongs to this key, checked without allocating a new key */
+        boolean contains(Location location) {
+            World world = location.getWorld();
+            if (world == null ? this.world != null : !world.getUID().equals(this.world)) return false;
+
+            return !isFolia()
+                    || (location.getBlockX() >> SECTION_SHIFT == x && location.getBlockZ() >> SECTION_SHIFT == z);
+        }
+    }
+
+    /**
+     * Ticks all spells of one world or region section on the thread that owns it.
+     */
+    private final class Ticker {
+
+        private final TickerKey key;
+        private final Location anchor;
+
+        /** Spells handed over from other threads, drained at the start of every tick. */
+        private final ConcurrentLinkedQueue<ActiveSpell> pending = new ConcurrentLinkedQueue<>();
+
+        /** Spells ticked by this ticker; only touched on the owning thread. */
+        private final ArrayList<ActiveSpell> spells = new ArrayList<>();
+
+        /** Two-phase spells captured for the worker pool in the current tick. */
+        private final ArrayList<ActiveSpell> batch = new ArrayList<>();
+
+        /** Living entities of this ticker's world or section, or null if its world is gone. */
+        private final EntityGrid grid;
+
+        /** Block types read in this ticker's world or section, or null if its world is gone. */
+        private final BlockMemo blocks;
+
+        /** Reused when reading caster positions. */
+        private final Location scratch = new Location(null, 0, 0, 0);
+
+        /** Positions of the players in this ticker's world as x, y, z triples; see {@link #refreshViewers()}. */
+        private double[] viewers = new double[3 * 16];
+        private int viewerCount;
+
+        /** The tick {@link #viewers} was last read in. */
+        private long viewerTick = -1;
+        private long tickCount;
+
+        private volatile ThreadUtil.ThreadTask task;
+        private volatile boolean closed;
+
+        /** Spells ticked in the last tick, read by {@link #getLoad(Location)}. */
+        private volatile int size;
+
+        /** Exponentially smoothed time between two ticks, in milliseconds. */
+        private volatile double intervalMillis = TICK_MILLIS;
+
+        /** Exponentially smoothed time spent in {@link #tick()}, in milliseconds. */
+        private volatile double workMillis;
+        private long lastTickNanos;
+
+        private Ticker(TickerKey key, Location anchor) {
+            this.key = key;
+            this.anchor = anchor;
+
+            World world = anchor.getWorld();
+            blocks = world == null ? null : new BlockMemo(world);
+
+            if (world == null) {
+                grid = null;
+            } else if (!isFolia()) {
+                grid = new EntityGrid(world, null);
+            } else {
+                int size = 1 << SECTION_SHIFT;
+                grid = new EntityGrid(world, new BoundingBox(
+                        key.x() * (double) size, world.getMinHeight() - 64.0, key.z() * (double) size,
+                        (key.x() + 1) * (double) size, world.getMaxHeight() + 64.0, (key.z() + 1) * (double) size));
+            }
+        }
+
+        private void start() {
+            task = ThreadUtil.ensureLocationTimer(anchor, this::tick, 1L, 1L, "SpellEngine tick");
+            if (closed) task.cancel();
+        }
+
+        private void tick() {
+            long start = System.nanoTime();
+
+            try {
+                if (grid == null) {
+                    tickSpells();
+                    return;
+                }
+
+                EntityGrid.install(grid);
+                BlockMemo.install(blocks);
+                try {
+                    tickSpells();
+                } finally {
+                    EntityGrid.uninstall();
+                    BlockMemo.uninstall();
+                }
+            } finally {
+                workMillis = workMillis * 0.9 + (System.nanoTime() - start) / 1_000_000.0 * 0.1;
+            }
+        }
+
+        private void tickSpells() {
+            long start = System.nanoTime();
+            tickCount++;
+
+            if (lastTickNanos != 0) {
+                intervalMillis = intervalMillis * 0.9 + (start - lastTickNanos) / 1_000_000.0 * 0.1;
+            }
+            lastTickNanos = start;
+
+            ActiveSpell next;
+            while ((next = pending.poll()) != null) {
+                spells.add(next);
+                next.listed = true;
+            }
+
+            long budget = budgetNanos;
+            long remaining = budget <= 0 ? Long.MAX_VALUE : BUDGET.get().remaining(start, budget);
+
+            if (budget > 0) {
+                for (ActiveSpell spell : spells) {
+                    spell.rank = spell.isRemoved() ? 0.0 : rank(spell, scratch);
+                }
+                spells.sort(BY_RANK);
+            }
+
+            ForkJoinPool pool = computePool;
+            if (pool != null) computeAhead(pool);
+
+            int ran = 0;
+            int skipped = 0;
+            int idle = 0;
+            int moved = 0;
+            int size = spells.size();
+            int kept = 0;
+
+            // Compacts in place so the rank order survives removals.
+            for (int i = 0; i < size; i++) {
+                ActiveSpell spell = spells.get(i);
+
+                // Suspended while its chunk unloaded; it lives in the hibernation store now.
+                if (spell.suspended) {
+                    spell.listed = false;
+                    continue;
+                }
+
+                // Never touch spells in unloaded chunks; they hibernate or are dropped below.
+                if (!spell.isRemoved() && !spell.hibernating && !ActiveSpell.isChunkLoaded(spell.getLocation())) {
+                    spell.hibernating = true;
+                }
+
+                if (!spell.isRemoved() && !spell.hibernating) {
+                    spell.elapsedTicks++;
+                    updateDetail(spell);
+
+                    if (spell.elapsedTicks < Math.min(spell.detail.getTickInterval(), spell.getMaxTickInterval())) {
+                        idle++;
+                    } else if (ran > 0 && System.nanoTime() - start >= remaining) {
+                        // Always run at least one spell so a ticker can never stall completely.
+                        spell.deferredTicks++;
+                        skipped++;
+                    } else {
+                        spell.tickDelta = spell.elapsedTicks;
+                        spell.elapsedTicks = 0;
+                        spell.deferredTicks = 0;
+                        ran++;
+                        progress(spell);
+                    }
+                }
+
+                if (spell.isRemoved()) {
+                    spell.listed = false;
+                    release(spell);
+                    continue;
+                }
+
+                if (spell.hibernating) {
+                    spell.listed = false;
+                    if (!park(spell)) release(spell);
+                    continue;
+                }
+
+                // Cleared first: once handed over, the next ticker may list it right away.
+                spell.listed = false;
+                if (handOver(spell)) {
+                    moved++;
+                    continue;
+                }
+                spell.listed = true;
+
+                spells.set(kept++, spell);
+            }
+
+            if (kept < size) spells.subList(kept, size).clear();
+            this.size = kept;
+
+            long elapsed = System.nanoTime() - start;
+            if (budget > 0) BUDGET.get().used += elapsed;
+
+            ticks.increment();
+            progressed.add(ran);
+            thinned.add(idle);
+            migrated.add(moved);
+            busyNanos.add(elapsed);
+            peakTickNanos.accumulate(elapsed);
+            if (skipped > 0) {
+                deferred.add(skipped);
+                overBudgetTicks.increment();
+            }
+
+            if (spells.isEmpty()) close();
+        }
+
+        /**
+         * Captures every two-phase spell due this tick and runs their compute steps together on
+         * the pool, so the loop only has to apply the results. Spells the budget defers after
+         * all are captured and computed again in their next tick.
+         */
+        private void computeAhead(ForkJoinPool pool) {
+            for (ActiveSpell spell : spells) {
+                spell.computed = false;
+
+                if (spell.isRemoved() || spell.hibernating || !spell.isTwoPhase()) continue;
+                if (spell.elapsedTicks + 1 < Math.min(spell.detail.getTickInterval(), spell.getMaxTickInterval())) continue;
+                if (!ActiveSpell.isChunkLoaded(spell.getLocation())) continue;
+
+                spell.tickDelta = spell.elapsedTicks + 1;
+
+                try {
+                    spell.capture();
+                    batch.add(spell);
+                } catch (Exception ignored) {
+                    // Captured again and reported by progress(ActiveSpell).
+                }
+            }
+
+            if (batch.size() >= minParallelBatch) {
+                pool.invoke(new ComputeTask(batch, 0, batch.size()));
+                computedInParallel.add(batch.size());
+            } else {
+                batch.forEach(SpellEngine::runCompute);
+            }
+
+            batch.clear();
+        }
+
+        /**
+         * Hands a spell whose anchor left this ticker's world (Paper) or region (Folia) to the
+         * ticker that owns it now. Spells in unloaded chunks stay; they hibernate next tick.
+         *
+         * @return true if the spell was handed over and must be dropped from this ticker
+         */
+        private boolean handOver(ActiveSpell spell) {
+            SpellAnchor anchorType = spell.getAnchor();
+            if (anchorType == SpellAnchor.FIXED) return false;
+
+            Entity entity = anchorType == SpellAnchor.ENTITY ? spell.getAnchorEntity() : null;
+
+            if (entity != null) {
+                // A spell notices on its own when the entity it follows is gone.
+                if (!entity.isValid()) return false;
+
+                if (!isFolia()) {
+                    Location location = entity.getLocation();
+                    if (key.contains(location)) return false;
+
+                    arrive(spell, location);
+                    return true;
+                }
+
+                if (scheduler.isOwnedByCurrentRegion(entity)) return false;
+
+                // Only the entity's scheduler knows which thread owns it by the time the task runs.
+                Location last = spell.getLocation().clone();
+                if (!scheduler.entity(entity).execute(
+                        () -> arrive(spell, entity.getLocation()),
+                        () -> arrive(spell, last), 1L)) {
+                    arrive(spell, last);
+                }
+                return true;
+            }
+
+            Location location = spell.getLocation();
+            if (key.contains(location) || !ActiveSpell.isChunkLoaded(location)) return false;
+
+            // Sections of one merged Folia region share a thread; only move on once they split.
+            if (isFolia() && scheduler.isOwnedByCurrentRegion(location)) return false;
+
+            arrive(spell, location.clone());
+            return true;
+        }
+
+        /**
+         * Re-evaluates a spell's level of detail every {@link #DETAIL_REFRESH_TICKS} ticks from
+         * the nearest player and the number of players within reduced-detail distance. Particles
+         * are thinned out further once more than {@code engine.lod.crowd-size} players watch.
+         */
+        private void updateDetail(ActiveSpell spell) {
+            if (--spell.detailCountdown > 0) return;
+            spell.detailCountdown = DETAIL_REFRESH_TICKS;
+
+            Location location = spell.getLocation();
+            if (!lodEnabled || location.getWorld() != anchor.getWorld()) {
+                spell.detail = DetailLevel.FULL;
+                spell.particleScale = 1.0;
+                return;
+            }
+
+            if (viewerTick != tickCount) refreshViewers();
+
+            double x = location.getX();
+            double y = location.getY();
+            double z = location.getZ();
+            double reduced = reducedDetailDistanceSquared;
+
+            double nearest = Double.MAX_VALUE;
+            int watching = 0;
+
+            for (int i = 0; i < viewerCount * 3; i += 3) {
+                double dx = viewers[i] - x;
+                double dy = viewers[i + 1] - y;
+                double dz = viewers[i + 2] - z;
+                double distanceSquared = dx * dx + dy * dy + dz * dz;
+
+                if (distanceSquared < nearest) nearest = distanceSquared;
+                if (distanceSquared <= reduced) watching++;
+            }
+
+            DetailLevel detail = nearest <= fullDetailDistanceSquared ? DetailLevel.FULL
+                    : nearest <= reduced ? DetailLevel.REDUCED
+                    : DetailLevel.MINIMAL;
+
+            double particleScale = detail.getParticleScale();
+            int crowd = crowdSize;
+            if (watching > crowd) particleScale *= crowd / (double) watching;
+
+            spell.detail = detail;
+            spell.particleScale = particleScale;
+        }
+
+        /**
+         * Reads the positions of all players in this ticker's world, at most once per tick.
+         */
+        private void refreshViewers() {
+            viewerTick = tickCount;
+            viewerCount = 0;
+
+            World world = anchor.getWorld();
+            if (world == null) return;
+
+            for (Player player : world.getPlayers()) {
+                int i = viewerCount * 3;
+                if (i == viewers.length) viewers = Arrays.copyOf(viewers, viewers.length * 2);
+
+                player.getLocation(scratch);
+                viewers[i] = scratch.getX();
+                viewers[i + 1] = scratch.getY();
+                viewers[i + 2] = scratch.getZ();
+                viewerCount++;
+            }
+        }
+
+        /**
+         * Unregisters this ticker if nothing was handed over in the meantime.
+         */
+        private void close() {
+            boolean[] removed = new boolean[1];
+
+            tickers.computeIfPresent(key, (k, ticker) -> {
+                if (ticker != this || !pending.isEmpty()) return ticker;
+                removed[0] = true;
+                return null;
+            });
+
+            if (removed[0]) cancel();
+        }
+
+        private void cancel() {
+            closed = true;
+            ThreadUtil.ThreadTask current = task;
+            if (current != null) current.cancel();
+        }
+    }
+}
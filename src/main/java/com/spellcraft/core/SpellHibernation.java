@@ -0,0 +1,111 @@
+package com.spellcraft.core;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Spells suspended by the {@link SpellEngine} because their chunk is not loaded.
+ * <p>
+ * A hibernating spell has no ticker and no registry entry; it is only listed here under the chunk
+ * it waits for, together with the time it expires. All methods are thread-safe.
+ */
+final class SpellHibernation {
+
+    private final Map<ActiveSpellRegistry.ChunkKey, List<Sleeper>> byChunk = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Suspends a spell until the chunk at its location is loaded.
+     *
+     * @param spell     the {@link ActiveSpell} to suspend
+     * @param expiresAt the time in milliseconds after which the spell is dropped instead of resumed
+     * @return false if the spell's location has no world, in which case nothing was stored
+     */
+    boolean add(@NotNull ActiveSpell spell, long expiresAt) {
+        ActiveSpellRegistry.ChunkKey key = keyOf(spell.getLocation());
+        if (key == null) return false;
+
+        Sleeper sleeper = new Sleeper(spell, expiresAt);
+
+        byChunk.compute(key, (k, bucket) -> {
+            if (bucket == null) bucket = new ArrayList<>(2);
+            bucket.add(sleeper);
+            return bucket;
+        });
+
+        size.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Takes every spell waiting for a chunk.
+     *
+     * @param world  the world
+     * @param chunkX the chunk x coordinate
+     * @param chunkZ the chunk z coordinate
+     * @return the spells that waited for the chunk, possibly expired
+     */
+    List<Sleeper> take(@NotNull World world, int chunkX, int chunkZ) {
+        List<Sleeper> bucket = byChunk.remove(
+                new ActiveSpellRegistry.ChunkKey(world.getUID(), ActiveSpellRegistry.chunkKey(chunkX, chunkZ)));
+        if (bucket == null) return List.of();
+
+        size.addAndGet(-bucket.size());
+        return bucket;
+    }
+
+    /**
+     * Takes every spell matching a filter.
+     *
+     * @param filter the spells to take
+     * @return the matching spells
+     */
+    List<ActiveSpell> takeIf(@NotNull Predicate<Sleeper> filter) {
+        List<ActiveSpell> taken = new ArrayList<>();
+
+        for (ActiveSpellRegistry.ChunkKey key : byChunk.keySet()) {
+            byChunk.computeIfPresent(key, (k, bucket) -> {
+                bucket.removeIf(sleeper -> {
+                    if (!filter.test(sleeper)) return false;
+                    taken.add(sleeper.spell());
+                    return true;
+                });
+                return bucket.isEmpty() ? null : bucket;
+            });
+        }
+
+        size.addAndGet(-taken.size());
+        return taken;
+    }
+
+    /** @return the number of hibernating spells */
+    int size() {
+        return size.get();
+    }
+
+    private static ActiveSpellRegistry.ChunkKey keyOf(Location location) {
+        World world = location.getWorld();
+        if (world == null) return null;
+
+        return new ActiveSpellRegistry.ChunkKey(world.getUID(),
+                ActiveSpellRegistry.chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+    }
+
+    /**
+     * A suspended spell and the time it expires, in milliseconds.
+     */
+    record Sleeper(ActiveSpell spell, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.spellcraft.core;
 
+import com.spellcraft.SpellCraftPlugin;
 import com.spellcraft.api.Spell;
 import com.spellcraft.api.SpellCategory;
 import com.spellcraft.api.SpellManager;
@@ -16,36 +17,40 @@ import java.util.stream.Collectors;
 public class SpellManagerImpl implements SpellManager {
 
     private final Map<String, Spell> spells = new ConcurrentHashMap<>();
-    private final Set<AbstractSpell> activeSpells = ConcurrentHashMap.newKeySet();
+    private final ActiveSpellRegistry registry = new ActiveSpellRegistry();
+    private final SpellEngine engine = new SpellEngine(registry);
+    private final AdmissionController admission = new AdmissionController(engine);
 
-    private static final ExecutorService ASYNC_EXECUTOR =
-            Executors.newFixedThreadPool(2, r -> {
-                Thread t = new Thread(r, "SpellCraft-Async");
-                t.setDaemon(true);
-                return t;
-            });
+    /** Runs the {@code ...Async} methods on virtual threads. */
+    private final Executor asyncExecutor = SpellCraftPlugin.getInstance().getIoExecutor();
 
     public SpellManagerImpl() {
     }
 
     @Override
-    public void track(AbstractSpell spell) {
-        activeSpells.add(spell);
+    public void track(ActiveSpell spell) {
+        engine.track(spell);
+    }
 
-        ThreadUtil.ThreadTask task = ThreadUtil.ensureLocationTimer(spell.getLocation(), () -> {
-            if (spell.isRemoved()) {
-                return;
-            }
-            spell.progress();
-        }, 1L, 1L, "Spell Progress Timer: " + spell.getName());
 
-        spell.setProgressTask(task);
+    @Override
+    public Set<ActiveSpell> getActiveSpells() {
+        return registry.getAll();
     }
 
-
     @Override
-    public Set<AbstractSpell> getActiveSpells() {
-        return Collections.unmodifiableSet(activeSpells);
+    public ActiveSpellRegistry getActiveSpellRegistry() {
+        return registry;
+    }
+
+    /** @return the {@link AdmissionController} deciding whether new casts are admitted */
+    public AdmissionController getAdmissionController() {
+        return admission;
+    }
+
+    /** @return the {@link SpellEngine} ticking all active spells */
+    public SpellEngine getEngine() {
+        return engine;
     }
 
     @Override
@@ -54,6 +59,10 @@ public class SpellManagerImpl implements SpellManager {
             throw new IllegalArgumentException("Cannot register null spell");
         }
 
+        if (spell instanceof AbstractSpell abstractSpell) {
+            abstractSpell.reloadSettings();
+        }
+
         spells.put(spell.getName().toLowerCase(), spell);
 
         if (spell instanceof AbstractSpell abstractSpell) {
@@ -68,11 +77,14 @@ public class SpellManagerImpl implements SpellManager {
         }
 
         CompletableFuture.runAsync(() -> {
+            if (spell instanceof AbstractSpell abstractSpell) {
+                abstractSpell.reloadSettings();
+            }
             spells.put(spell.getName().toLowerCase(), spell);
             if (spell instanceof AbstractSpell abstractSpell) {
                 abstractSpell.onLoad();
             }
-        }, ASYNC_EXECUTOR);
+        }, asyncExecutor);
     }
 
     @Override
@@ -82,7 +94,8 @@ public class SpellManagerImpl implements SpellManager {
         spells.remove(spell.getName().toLowerCase());
 
         if (spell instanceof AbstractSpell abstractSpell) {
-            abstractSpell.onStop();
+            removeInstances(abstractSpell);
+            abstractSpell.onUnload();
         }
     }
 
@@ -93,9 +106,22 @@ public class SpellManagerImpl implements SpellManager {
         CompletableFuture.runAsync(() -> {
             spells.remove(spell.getName().toLowerCase());
             if (spell instanceof AbstractSpell abstractSpell) {
-                abstractSpell.onStop();
+                removeInstances(abstractSpell);
+                abstractSpell.onUnload();
             }
-        }, ASYNC_EXECUTOR);
+        }, asyncExecutor);
+    }
+
+    /**
+     * Removes every active instance of a spell on the thread owning its location.
+     */
+    private void removeInstances(AbstractSpell spell) {
+        for (ActiveSpell active : registry.getAll()) {
+            if (active.getSpell() != spell || active.isRemoved()) continue;
+            ThreadUtil.ensureLocation(active.getLocation(), active::remove);
+        }
+
+        engine.removeHibernating(spell);
     }
 
     @Override
@@ -112,7 +138,7 @@ public class SpellManagerImpl implements SpellManager {
 
         return CompletableFuture.supplyAsync(
                 () -> Optional.ofNullable(spells.get(name.toLowerCase())),
-                ASYNC_EXECUTOR
+                asyncExecutor
         );
     }
 
@@ -125,7 +151,7 @@ public class SpellManagerImpl implements SpellManager {
     public CompletableFuture<Collection<Spell>> getAllSpellsAsync() {
         return CompletableFuture.supplyAsync(
                 () -> new ArrayList<>(spells.values()),
-                ASYNC_EXECUTOR
+                asyncExecutor
         );
     }
 
@@ -147,7 +173,7 @@ public class SpellManagerImpl implements SpellManager {
                 () -> spells.values().stream()
                         .filter(spell -> spell.getCategory() == category)
                         .collect(Collectors.toList()),
-                ASYNC_EXECUTOR
+                asyncExecutor
         );
     }
 
@@ -165,18 +191,23 @@ public class SpellManagerImpl implements SpellManager {
 
         return CompletableFuture.supplyAsync(
                 () -> spells.containsKey(name.toLowerCase()),
-                ASYNC_EXECUTOR
+                asyncExecutor
         );
     }
 
     @Override
     public void reloadSpells() {
-        spells.values().forEach(spell -> spell.setEnabled(true));
+        spells.values().forEach(spell -> {
+            if (spell instanceof AbstractSpell abstractSpell) {
+                abstractSpell.reloadSettings();
+            } else {
+                spell.setEnabled(true);
+            }
+        });
     }
 
     @Override
     public void shutdown() {
-        ASYNC_EXECUTOR.shutdownNow();
-        activeSpells.clear();
+        engine.shutdown();
     }
 }
@@ -7,6 +7,7 @@ import com.spellcraft.api.house.House;
 import com.spellcraft.api.magic.MagicElement;
 import com.spellcraft.core.SpellCasterImpl;
 import com.spellcraft.util.HouseUtil;
+import com.spellcraft.util.IoExecutor;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
@@ -14,23 +15,18 @@ import org.bukkit.entity.Player;
 import java.io.File;
 import java.io.IOException;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 public class PlayerDataManager {
 
     private final SpellCraftPlugin plugin;
     private final File playerFolder;
 
-    private static final ExecutorService IO_EXECUTOR =
-            Executors.newSingleThreadExecutor(r -> {
-                Thread t = new Thread(r, "SpellCraft-PlayerIO");
-                t.setDaemon(true);
-                return t;
-            });
+    /** Writes of the same player are serialized on their UUID. */
+    private final IoExecutor io;
 
     public PlayerDataManager(SpellCraftPlugin plugin) {
         this.plugin = plugin;
+        this.io = plugin.getIoExecutor();
         this.playerFolder = new File(plugin.getDataFolder(), "players");
 
         if (!playerFolder.exists() && !playerFolder.mkdirs()) {
@@ -44,6 +40,9 @@ public class PlayerDataManager {
 
     /** Load player data and apply defaults if necessary */
     public SpellCaster load(Player player) {
+        // Never read a file while a write of it is still queued
+        io.pending(player.getUniqueId()).join();
+
         File file = getPlayerFile(player.getUniqueId());
         YamlConfiguration config = YamlConfiguration.loadConfiguration(file);
 
@@ -84,16 +83,16 @@ public class PlayerDataManager {
         return caster;
     }
 
-    /** Save player data synchronously */
+    /** Save player data synchronously, after any queued write of the same player */
     public void save(SpellCaster caster) {
         PlayerSnapshot snapshot = PlayerSnapshot.capture(caster);
-        writeSnapshot(snapshot);
+        io.submit(snapshot.uuid, () -> writeSnapshot(snapshot)).join();
     }
 
     /** Save player data asynchronously (non blocking) */
     public void saveAsync(SpellCaster caster) {
         PlayerSnapshot snapshot = PlayerSnapshot.capture(caster);
-        IO_EXECUTOR.execute(() -> writeSnapshot(snapshot));
+        io.submit(snapshot.uuid, () -> writeSnapshot(snapshot));
     }
 
     private void writeSnapshot(PlayerSnapshot snapshot) {
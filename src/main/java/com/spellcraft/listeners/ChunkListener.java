@@ -0,0 +1,33 @@
+package com.spellcraft.listeners;
+
+import com.spellcraft.core.SpellEngine;
+import org.bukkit.Chunk;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+
+/**
+ * Suspends spells in chunks that unload and resumes them once their chunk is loaded again.
+ */
+public class ChunkListener implements Listener {
+
+    private final SpellEngine engine;
+
+    public ChunkListener(SpellEngine engine) {
+        this.engine = engine;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        Chunk chunk = event.getChunk();
+        engine.wake(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        engine.suspendChunk(chunk.getWorld(), chunk.getX(), chunk.getZ());
+    }
+}
@@ -73,7 +73,7 @@ public class PlayerListener implements Listener {
 
             }
 
-        },0L,2L);
+        },0L,2L,"Spell action bar");
 
     }
 
@@ -86,7 +86,7 @@ public class PlayerListener implements Listener {
 
         plugin.getLogger().info("SpellCaster for " + player.getName() + " loaded!");
 
-        ThreadUtil.runGlobalTimer(() -> {
+        caster.getTasks().runGlobalTimer(() -> {
 
             if (plugin.getConfig().getBoolean("ui.show-magic-bar",true)) {
 
@@ -94,9 +94,9 @@ public class PlayerListener implements Listener {
 
             }
 
-        },20L,100L);
+        },20L,100L,"MagicBar join refresh");
 
-        ThreadUtil.runGlobalLater(() -> {
+        caster.getTasks().scheduleGlobalLater(() -> {
 
             if (!caster.hasHouse()) {
 
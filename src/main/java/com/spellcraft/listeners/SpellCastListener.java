@@ -178,6 +178,15 @@ public class SpellCastListener implements Listener {
                             ));
 
 
+            case SERVER_BUSY ->
+
+                    SpellCraftPlugin.getAdventure().player(player)
+                            .sendMessage(Component.text(
+                                    SpellResult.SERVER_BUSY.getMessage(),
+                                    NamedTextColor.RED
+                            ));
+
+
             case INVALID_TARGET ->
 
                     SpellCraftPlugin.getAdventure().player(player)
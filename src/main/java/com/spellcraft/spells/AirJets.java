@@ -1,16 +1,19 @@
 package com.spellcraft.spells;
 
-import com.spellcraft.SpellCraftPlugin;
 import com.spellcraft.api.SpellCaster;
 import com.spellcraft.api.SpellCategory;
 import com.spellcraft.api.SpellResult;
 import com.spellcraft.api.magic.MagicElement;
 import com.spellcraft.core.AbstractSpell;
+import com.spellcraft.core.ActiveSpell;
+import com.spellcraft.core.SpellAnchor;
+import com.spellcraft.core.SpellConfig;
 import com.spellcraft.util.HouseUtil;
+import com.spellcraft.util.MutableVector;
 import com.spellcraft.util.ParticleEffect;
-import com.spellcraft.util.ThreadUtil;
 
 import org.bukkit.Location;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.Action;
 import org.bukkit.util.Vector;
@@ -22,8 +25,8 @@ import org.jetbrains.annotations.NotNull;
 public class AirJets extends AbstractSpell {
 
 
-    private Location currentLoc;
-    private Location playerLoc;
+
+    private volatile double jetSpeed = 1.5;
 
 
 
@@ -37,21 +40,13 @@ public class AirJets extends AbstractSpell {
 
                 SpellCategory.TRANSPORTATION,
 
-                SpellCraftPlugin.getInstance()
-                        .getConfig()
-                        .getInt("spells.airjets.magic-cost", 30),
+                30,
 
-                SpellCraftPlugin.getInstance()
-                        .getConfig()
-                        .getLong("spells.airjets.cooldown", 7000),
+                7000L,
 
-                SpellCraftPlugin.getInstance()
-                        .getConfig()
-                        .getDouble("spells.airjets.range", 100),
+                100.0,
 
-                SpellCraftPlugin.getInstance()
-                        .getConfig()
-                        .getBoolean("spells.airjets.enabled", true),
+                true,
 
                 "Sneak to ride a jet of air!"
 
@@ -62,160 +57,212 @@ public class AirJets extends AbstractSpell {
 
 
     @Override
-    protected SpellResult execute(SpellCaster caster) {
+    public boolean isSneakingAbility() {
 
+        return true;
 
-        Player player = caster.getPlayer();
+    }
 
 
-        double speed =
-                SpellCraftPlugin.getInstance()
-                        .getConfig()
-                        .getDouble("spells.airjets.speed", 1.5);
 
+    @Override
+    public Action getAbilityActivationAction() {
 
-        double maxDistance = getRange();
+        return null;
 
+    }
 
-        Location start = player.getLocation().clone();
 
 
-        playerLoc = start;
+    @Override
+    public MagicElement getElement() {
 
+        return MagicElement.AIR;
 
+    }
 
-        ThreadUtil.ensureLocationTimer(
 
-                start,
 
-                () -> {
+    @Override
+    protected String getConfigKey() {
 
+        return "airjets";
 
-                    if (isRemoved())
-                        return;
+    }
 
 
 
-                    if (!player.isOnline()
-                            || player.isDead()
-                            || !player.isSneaking()
-                            || !HouseUtil.canUse(caster.getHouse(), getElement())) {
+    @Override
+    protected void loadSettings(SpellConfig config) {
 
-                        remove();
-                        return;
+        jetSpeed = config.getDouble("speed", 1.5);
 
-                    }
+    }
 
 
 
-                    if (player.getLocation().distanceSquared(start)
-                            > maxDistance * maxDistance) {
+    @Override
+    protected ActiveSpell createInstance() {
 
-                        remove();
-                        return;
+        return new Instance();
 
-                    }
+    }
 
 
 
-                    Vector direction =
-                            player.getEyeLocation()
-                                    .getDirection()
-                                    .normalize();
+    private final class Instance extends ActiveSpell {
 
 
-                    player.setVelocity(direction.multiply(speed));
+        private Location currentLoc;
+        private Location playerLoc;
 
 
+        private Player player;
+        private Location start;
+        private Location below;
+        private final MutableVector direction = new MutableVector();
+        private final Vector velocity = new Vector();
+        private double speed;
+        private double maxDistance;
 
-                    Location below =
-                            player.getLocation()
-                                    .clone()
-                                    .subtract(0, 1, 0);
 
 
+        private Instance() {
 
-                    currentLoc = below;
+            super(AirJets.this);
 
-                    playerLoc = player.getLocation();
+        }
 
 
 
-                    ParticleEffect.CLOUD.display(below, 25);
+        @Override
+        protected SpellResult execute(SpellCaster caster) {
 
-                    ParticleEffect.SMOKE_NORMAL.display(below, 10);
 
+            player = caster.getPlayer();
 
-                },
 
-                0,
+            speed = jetSpeed;
 
-                1
 
-        );
+            maxDistance = getRange();
 
 
+            start = player.getLocation().clone();
 
-        return SpellResult.SUCCESS;
 
-    }
+            playerLoc = start.clone();
 
 
+            below = start.clone();
 
-    @Override
-    public void progress() {
 
-    }
+            currentLoc = null;
 
 
 
-    @Override
-    protected void onLoad() {
+            return SpellResult.SUCCESS;
 
-    }
+        }
 
 
 
-    @Override
-    protected void onStop() {
+        @Override
+        public void progress() {
 
-    }
 
+            if (!player.isOnline()
+                    || player.isDead()
+                    || !player.isSneaking()
+                    || !HouseUtil.canUse(caster.getHouse(), getElement())) {
 
+                remove();
+                return;
 
-    @Override
-    public boolean isSneakingAbility() {
+            }
 
-        return true;
 
-    }
 
+            player.getLocation(playerLoc);
 
 
-    @Override
-    public Action getAbilityActivationAction() {
 
-        return null;
+            if (playerLoc.distanceSquared(start)
+                    > maxDistance * maxDistance) {
 
-    }
+                remove();
+                return;
 
+            }
 
 
-    @Override
-    public MagicElement getElement() {
 
-        return MagicElement.AIR;
+            direction
+                    .setDirection(playerLoc)
+                    .multiply(speed);
 
-    }
 
+            player.setVelocity(direction.toVector(velocity));
 
 
-    @Override
-    public @NotNull Location getLocation() {
 
-        return currentLoc == null ? playerLoc : currentLoc;
+            below.setWorld(playerLoc.getWorld());
+
+            below.setX(playerLoc.getX());
+
+            below.setY(playerLoc.getY() - 1);
+
+            below.setZ(playerLoc.getZ());
+
+
+
+            currentLoc = below;
+
+
+
+            ParticleEffect.CLOUD.display(below, 25);
+
+            ParticleEffect.SMOKE_NORMAL.display(below, 10);
+
+
+        }
+
+
+
+        @Override
+        protected void onStop() {
+
+        }
+
+
+
+        @Override
+        public @NotNull Location getLocation() {
+
+            return currentLoc == null ? playerLoc : currentLoc;
+
+        }
+
+
+
+        @Override
+        public SpellAnchor getAnchor() {
+
+            return SpellAnchor.ENTITY;
+
+        }
+
+
+
+        @Override
+        public Entity getAnchorEntity() {
+
+            return player;
+
+        }
+
 
     }
 
 
-}
\ No newline at end of file
+}
@@ -1,18 +1,22 @@
 package com.spellcraft.spells;
 
-import com.spellcraft.SpellCraftPlugin;
 import com.spellcraft.api.SpellCaster;
 import com.spellcraft.api.SpellCategory;
 import com.spellcraft.api.SpellResult;
 import com.spellcraft.api.magic.MagicElement;
 import com.spellcraft.core.AbstractSpell;
+import com.spellcraft.core.ActiveSpell;
+import com.spellcraft.core.SpellConfig;
 import com.spellcraft.util.BlockSource;
 import com.spellcraft.util.DamageHandler;
+import com.spellcraft.util.MutableVector;
 import com.spellcraft.util.ParticleEffect;
-import com.spellcraft.util.ThreadUtil;
+import com.spellcraft.util.ProjectileStepper;
+import com.spellcraft.util.TargetTracker;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.Action;
@@ -20,149 +24,40 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.PotionMeta;
 import org.bukkit.potion.PotionType;
-import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.function.Predicate;
+
 public class AquaMissile extends AbstractSpell {
 
-    private Location currentLoc;
-    private Location playerLoc;
+    private volatile Settings settings = Settings.load(SpellConfig.empty("aqua-missile"));
 
     public AquaMissile() {
         super(
                 "AquaMissile",
                 "Launch a homing water projectile at your enemy",
                 SpellCategory.COMBAT,
-                SpellCraftPlugin.getInstance().getConfig().getInt("spells.aqua-missile.magic-cost", 35),
-                SpellCraftPlugin.getInstance().getConfig().getLong("spells.aqua-missile.cooldown", 6000L),
-                SpellCraftPlugin.getInstance().getConfig().getDouble("spells.aqua-missile.range", 40.0),
-                SpellCraftPlugin.getInstance().getConfig().getBoolean("spells.aqua-missile.enabled", true),
+                35,
+                6000L,
+                40.0,
+                true,
                 "Sneak to launch a homing water orb!"
         );
     }
 
     @Override
-    protected SpellResult execute(SpellCaster caster) {
-
-        Player player = caster.getPlayer();
-
-        var config = SpellCraftPlugin.getInstance().getConfig();
-
-        double sourceRange = config.getDouble("spells.aqua-missile.source-range", 10.0);
-        double speed = config.getDouble("spells.aqua-missile.speed", 0.6);
-        double hitRadius = config.getDouble("spells.aqua-missile.hit-radius", 1.5);
-        double damage = config.getDouble("spells.aqua-missile.damage", 6.0);
-        int maxLifetime = config.getInt("spells.aqua-missile.max-ticks", 100);
-        boolean requireSource = config.getBoolean("spells.aqua-missile.require-source", true);
-
-        Block source = BlockSource.getSourceBlock(player, sourceRange);
-
-        boolean hasWaterSource =
-                source != null &&
-                        source.getType() == Material.WATER;
-
-        boolean hasWaterBottle = hasWaterBottle(player);
-
-        if (requireSource && !hasWaterSource && !hasWaterBottle) {
-            return SpellResult.FAILURE;
-        }
-
-        if (!hasWaterSource && hasWaterBottle) {
-
-            if (!consumeOneWaterBottle(player)) {
-                return SpellResult.FAILURE;
-            }
-
-            currentLoc = player.getEyeLocation().clone();
-
-        } else {
-
-            ParticleEffect.WATER_SPLASH.display(source.getLocation().add(0.5,0.5,0.5),25);
-
-            source.setType(Material.AIR);
-
-            currentLoc = source.getLocation().add(0.5,0.5,0.5);
-
-        }
-
-        playerLoc = player.getLocation();
-
-        final int[] lived = {0};
-
-        ThreadUtil.ensureLocationTimer(currentLoc, () -> {
-
-            if (!player.isOnline() || player.isDead()) {
-                remove();
-                return;
-            }
-
-            if (lived[0]++ > maxLifetime) {
-
-                splash(currentLoc);
-                remove();
-                return;
-            }
-
-            LivingEntity target = findNearestTarget(player, getRange());
-
-            Vector direction;
-
-            if (target != null) {
-
-                direction =
-                        target.getEyeLocation().toVector()
-                                .subtract(currentLoc.toVector())
-                                .normalize();
-
-            } else {
-
-                direction =
-                        player.getEyeLocation()
-                                .getDirection()
-                                .normalize();
-            }
-
-            currentLoc.add(direction.multiply(speed));
-
-            playerLoc = player.getLocation();
-
-            if (currentLoc.getBlock().getType().isSolid()) {
-
-                splash(currentLoc);
-                remove();
-                return;
-            }
-
-            ParticleEffect.WATER_SPLASH.display(currentLoc,6);
-
-            ParticleEffect.WATER_BUBBLE.display(currentLoc,3);
-
-            currentLoc.getWorld()
-                    .getNearbyEntities(currentLoc, hitRadius, hitRadius, hitRadius)
-                    .forEach(entity -> {
-
-                        if (!(entity instanceof LivingEntity living)) return;
-
-                        if (living.equals(player)) return;
-
-                        if (!DamageHandler.isValidTarget(player,living)) return;
-
-                        DamageHandler.damage(
-                                player,
-                                living,
-                                damage,
-                                getName(),
-                                getElement()
-                        );
-
-                        splash(currentLoc);
-
-                        remove();
-                    });
+    protected String getConfigKey() {
+        return "aqua-missile";
+    }
 
-        },0,1);
+    @Override
+    protected void loadSettings(SpellConfig config) {
+        settings = Settings.load(config);
+    }
 
-        return SpellResult.SUCCESS;
+    @Override
+    protected ActiveSpell createInstance() {
+        return new Instance();
     }
 
     private boolean hasWaterBottle(Player player) {
@@ -217,23 +112,6 @@ public class AquaMissile extends AbstractSpell {
         return false;
     }
 
-    private LivingEntity findNearestTarget(Player player, double range) {
-
-        return player
-                .getNearbyEntities(range,range,range)
-                .stream()
-                .filter(e -> e instanceof LivingEntity living && !living.equals(player))
-                .map(e -> (LivingEntity)e)
-                .filter(e -> DamageHandler.isValidTarget(player,e))
-                .min((a,b) ->
-                        Double.compare(
-                                a.getLocation().distanceSquared(player.getLocation()),
-                                b.getLocation().distanceSquared(player.getLocation())
-                        )
-                )
-                .orElse(null);
-    }
-
     private void splash(Location loc) {
 
         ParticleEffect.WATER_SPLASH.display(loc,20);
@@ -248,12 +126,8 @@ public class AquaMissile extends AbstractSpell {
         );
     }
 
-    @Override public void progress() {}
-
     @Override protected void onLoad() {}
 
-    @Override protected void onStop() {}
-
     @Override public boolean isSneakingAbility() {
         return true;
     }
@@ -266,10 +140,227 @@ public class AquaMissile extends AbstractSpell {
         return MagicElement.WATER;
     }
 
-    @Override
-    public @NotNull Location getLocation() {
-        return currentLoc == null
-                ? playerLoc
-                : currentLoc;
+    private final class Instance extends ActiveSpell {
+
+        private Location currentLoc;
+        private Location playerLoc;
+
+        private final MutableVector direction = new MutableVector();
+        private final MutableVector position = new MutableVector();
+        private final MutableVector centre = new MutableVector();
+        private final Location scratch = new Location(null, 0, 0, 0);
+        private final ProjectileStepper stepper = new ProjectileStepper();
+        private final Predicate<Entity> targets = this::isTarget;
+        private TargetTracker tracker;
+
+        private Player player;
+        private double speed;
+        private double hitRadius;
+        private double damage;
+        private int maxLifetime;
+        private int lived;
+
+        private Instance() {
+            super(AquaMissile.this);
+        }
+
+        @Override
+        protected SpellResult execute(SpellCaster caster) {
+
+            player = caster.getPlayer();
+
+            Settings settings = AquaMissile.this.settings;
+
+            speed = settings.speed();
+            hitRadius = settings.hitRadius();
+            damage = settings.damage();
+            maxLifetime = settings.maxTicks();
+            tracker = new TargetTracker(settings.retargetInterval(), settings.targetStickiness(), settings.lineOfSight());
+
+            Block source = BlockSource.getSourceBlock(player, settings.sourceRange());
+
+            boolean hasWaterSource =
+                    source != null &&
+                            source.getType() == Material.WATER;
+
+            boolean hasWaterBottle = hasWaterBottle(player);
+
+            if (settings.requireSource() && !hasWaterSource && !hasWaterBottle) {
+                return SpellResult.FAILURE;
+            }
+
+            if (!hasWaterSource && hasWaterBottle) {
+
+                if (!consumeOneWaterBottle(player)) {
+                    return SpellResult.FAILURE;
+                }
+
+                currentLoc = player.getEyeLocation().clone();
+
+            } else {
+
+                ParticleEffect.WATER_SPLASH.display(source.getLocation().add(0.5,0.5,0.5),25);
+
+                source.setType(Material.AIR);
+
+                currentLoc = source.getLocation().add(0.5,0.5,0.5);
+
+            }
+
+            playerLoc = player.getLocation();
+
+            lived = 0;
+
+            return SpellResult.SUCCESS;
+        }
+
+        @Override
+        public int getMaxTickInterval() {
+            return 4;
+        }
+
+        @Override
+        public boolean canHibernate() {
+            return true;
+        }
+
+        @Override
+        public void progress() {
+
+            if (!player.isOnline() || player.isDead()) {
+                remove();
+                return;
+            }
+
+            aim();
+
+            // Far from players the engine calls this less often; step through every
+            // elapsed tick so the missile never skips over blocks or entities.
+            for (int i = getTickDelta(); i > 0; i--) {
+
+                if (!step()) return;
+            }
+
+            ParticleEffect.WATER_SPLASH.display(currentLoc,6);
+
+            ParticleEffect.WATER_BUBBLE.display(currentLoc,3);
+        }
+
+        /**
+         * Turns the missile towards the eyes of its target, or along the caster's view without one.
+         * While the target holds, this costs the same however many entities are around.
+         */
+        private void aim() {
+
+            player.getLocation(playerLoc);
+
+            Entity target = tracker.update(
+                    currentLoc.getWorld(),
+                    centre.set(playerLoc),
+                    position.set(currentLoc),
+                    getRange(),
+                    getTickDelta(),
+                    targets
+            );
+
+            if (target instanceof LivingEntity living) {
+
+                direction.setEye(living, scratch)
+                        .subtract(position)
+                        .normalize();
+
+            } else {
+
+                direction.setDirection(playerLoc);
+            }
+        }
+
+        /**
+         * Moves the missile by one tick.
+         *
+         * @return false if the missile hit something or expired and was removed
+         */
+        private boolean step() {
+
+            if (lived++ > maxLifetime) {
+
+                splash(currentLoc);
+                remove();
+                return false;
+            }
+
+            ProjectileStepper.Outcome outcome = stepper.advance(
+                    currentLoc.getWorld(),
+                    position.set(currentLoc),
+                    direction,
+                    speed,
+                    hitRadius,
+                    targets
+            );
+
+            position.toLocation(currentLoc);
+
+            switch (outcome) {
+
+                case UNLOADED -> {
+
+                    hibernate();
+                    return false;
+                }
+
+                case ENTITY -> DamageHandler.damage(
+                        player,
+                        (LivingEntity) stepper.getHitEntity(),
+                        damage,
+                        getName(),
+                        getElement()
+                );
+
+                case BLOCK -> {}
+
+                default -> {
+
+                    return true;
+                }
+            }
+
+            splash(currentLoc);
+
+            remove();
+            return false;
+        }
+
+        private boolean isTarget(Entity entity) {
+
+            return entity instanceof LivingEntity living
+                    && !living.equals(player)
+                    && DamageHandler.isValidTarget(player, living);
+        }
+
+        @Override
+        public @NotNull Location getLocation() {
+            return currentLoc == null
+                    ? playerLoc
+                    : currentLoc;
+        }
+    }
+
+    private record Settings(double sourceRange, double speed, double hitRadius, double damage,
+                            int maxTicks, boolean requireSource, int retargetInterval,
+                            double targetStickiness, boolean lineOfSight) {
+
+        static Settings load(SpellConfig config) {
+            return new Settings(
+                    config.getDouble("source-range", 10.0),
+                    config.getDouble("speed", 0.6),
+                    config.getDouble("hit-radius", 1.5),
+                    config.getDouble("damage", 6.0),
+                    config.getInt("max-ticks", 100),
+                    config.getBoolean("require-source", true),
+                    config.getInt("retarget-interval", 10),
+                    config.getDouble("target-stickiness", 4.0),
+                    config.getBoolean("line-of-sight", true)
+            );
+        }
     }
 }
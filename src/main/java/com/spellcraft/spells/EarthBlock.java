@@ -5,6 +5,7 @@ import com.spellcraft.api.SpellCategory;
 import com.spellcraft.api.SpellResult;
 import com.spellcraft.api.magic.MagicElement;
 import com.spellcraft.core.AbstractSpell;
+import com.spellcraft.core.ActiveSpell;
 import com.spellcraft.util.TempBlock;
 import com.spellcraft.util.TempFallingBlock;
 import com.spellcraft.util.ThreadUtil;
@@ -15,38 +16,10 @@ import org.jetbrains.annotations.NotNull;
 
 public class EarthBlock extends AbstractSpell {
 
-    private Location currentLocation;
-
     public EarthBlock() {
         super("EarthBlock", "Spawn a single earth block", SpellCategory.UTILITY, 1, 0L, 50D, true, "Left Click Air");
     }
 
-    @Override
-    protected SpellResult execute(SpellCaster caster) {
-        Player player = caster.getPlayer();
-        currentLocation = player.getLocation().clone();
-
-        TempBlock tb = new TempBlock(currentLocation.getBlock(), Material.GRASS_BLOCK);
-        ThreadUtil.ensureLocationLater(tb.getBlock().getLocation(), tb::revert, 30 * 20);
-
-        TempFallingBlock tfb = new TempFallingBlock(currentLocation, Material.BEDROCK.createBlockData(), player.getVelocity(), false);
-        player.getLocation().getWorld().playSound(tfb.getEntity().getLocation(), Sound.BLOCK_BEACON_ACTIVATE, 1.0f, 1.0f);
-
-        ThreadUtil.ensureLocationLater(currentLocation, tfb::remove, 900 * 20);
-
-        return SpellResult.SUCCESS;
-    }
-
-    @Override
-    public void progress() {
-    }
-
-    @Override
-    protected void onLoad() {}
-
-    @Override
-    protected void onStop() {}
-
     @Override
     public boolean isSneakingAbility() {
         return false;
@@ -63,7 +36,45 @@ public class EarthBlock extends AbstractSpell {
     }
 
     @Override
-    public @NotNull Location getLocation() {
-        return currentLocation != null ? currentLocation.clone() : new Location(Bukkit.getWorlds().getFirst(), 0, 0, 0);
+    protected ActiveSpell createInstance() {
+        return new Instance();
+    }
+
+    private final class Instance extends ActiveSpell {
+
+        private Location currentLocation;
+
+        private Instance() {
+            super(EarthBlock.this);
+        }
+
+        @Override
+        protected SpellResult execute(SpellCaster caster) {
+            Player player = caster.getPlayer();
+            currentLocation = player.getLocation().clone();
+
+            TempBlock tb = new TempBlock(currentLocation.getBlock(), Material.GRASS_BLOCK);
+            ThreadUtil.scheduleLater(tb.getBlock().getLocation(), tb::revert, 30 * 20);
+
+            TempFallingBlock tfb = new TempFallingBlock(currentLocation, Material.BEDROCK.createBlockData(), player.getVelocity(), false);
+            player.getLocation().getWorld().playSound(tfb.getEntity().getLocation(), Sound.BLOCK_BEACON_ACTIVATE, 1.0f, 1.0f);
+
+            ThreadUtil.scheduleLater(currentLocation, tfb::remove, 900 * 20);
+
+            return SpellResult.SUCCESS;
+        }
+
+        @Override
+        public void progress() {
+            remove();
+        }
+
+        @Override
+        protected void onStop() {}
+
+        @Override
+        public @NotNull Location getLocation() {
+            return currentLocation != null ? currentLocation.clone() : new Location(Bukkit.getWorlds().getFirst(), 0, 0, 0);
+        }
     }
 }
@@ -1,13 +1,16 @@
 package com.spellcraft.spells;
 
-import com.spellcraft.SpellCraftPlugin;
 import com.spellcraft.api.SpellCaster;
 import com.spellcraft.api.SpellCategory;
 import com.spellcraft.api.SpellResult;
 import com.spellcraft.api.magic.MagicElement;
 import com.spellcraft.core.AbstractSpell;
+import com.spellcraft.core.ActiveSpell;
+import com.spellcraft.core.SpellConfig;
 import com.spellcraft.util.DamageHandler;
-import com.spellcraft.util.ThreadUtil;
+import com.spellcraft.util.ParticleEffect;
+import com.spellcraft.util.RegionLocal;
+import com.spellcraft.util.TargetSnapshot;
 import org.bukkit.*;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
@@ -16,183 +19,305 @@ import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.Action;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.BoundingBox;
 import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 public class EarthKick extends AbstractSpell {
 
-    private static final Set<FallingBlock> ACTIVE_BLOCKS = new HashSet<>();
-    private final List<FallingBlock> spawnedBlocks = new ArrayList<>();
+    private static final RegionLocal<Set<FallingBlock>> ACTIVE_BLOCKS = new RegionLocal<>(HashSet::new);
 
-    private long duration;
-    private double damage;
-    private int maxBlocks;
-    private double lavaMultiplier;
+    /** Half the edge of the cube around a shard that entities are hit in. */
+    private static final double HIT_RADIUS = 1.5;
 
-    private long startTime;
-    private Location playerLocation;
-    private Location cachedloc;
+    private volatile Settings settings = Settings.load(SpellConfig.empty("earthkick"));
 
     public EarthKick() {
         super(
                 "EarthKick",
                 "Kick earth shards at your enemies",
                 SpellCategory.COMBAT,
-                SpellCraftPlugin.getInstance().getConfig().getInt("spells.earthkick.magic-cost", 25),
-                SpellCraftPlugin.getInstance().getConfig().getLong("spells.earthkick.cooldown", 4000L),
+                25,
+                4000L,
                 20.0,
-                SpellCraftPlugin.getInstance().getConfig().getBoolean("spells.earthkick.enabled", true),
+                true,
                 "Sneak at earth in front of you"
         );
     }
 
+    private boolean isEarth(Material mat) {
+        return mat == Material.DIRT
+                || mat == Material.GRASS_BLOCK
+                || mat == Material.STONE
+                || mat == Material.SAND
+                || mat == Material.RED_SAND
+                || mat == Material.GRAVEL
+                || mat == Material.CLAY
+                || mat == Material.TERRACOTTA
+                || mat == Material.PACKED_MUD
+                || mat == Material.MUD
+                || mat == Material.LAVA;
+    }
+
+    @Override public boolean isSneakingAbility() { return true; }
+    @Override public Action getAbilityActivationAction() { return null; }
+    @Override public MagicElement getElement() { return MagicElement.EARTH; }
+
     @Override
-    protected SpellResult execute(SpellCaster caster) {
+    protected String getConfigKey() {
+        return "earthkick";
+    }
+
+    @Override
+    protected void loadSettings(SpellConfig config) {
+        settings = Settings.load(config);
+    }
 
-        Player player = caster.getPlayer();
-        var config = SpellCraftPlugin.getInstance().getConfig();
+    @Override
+    protected ActiveSpell createInstance() {
+        return new Instance();
+    }
 
-        this.damage = config.getDouble("spells.earthkick.damage", 6.0);
-        this.maxBlocks = config.getInt("spells.earthkick.max-blocks", 4);
-        this.lavaMultiplier = config.getDouble("spells.earthkick.lava-multiplier", 1.5);
-        this.duration = config.getLong("spells.earthkick.duration", 2500);
+    private final class Instance extends ActiveSpell {
 
-        Block target = player.getTargetBlockExact(3);
-        if (target == null) return SpellResult.INVALID_TARGET;
+        private final List<FallingBlock> spawnedBlocks = new ArrayList<>();
 
-        Material type = target.getType();
+        /** The shard of {@link #ACTIVE_BLOCKS} for the region this kick was cast in. */
+        private Set<FallingBlock> activeBlocks;
 
-        if (!isEarth(type)) return SpellResult.INVALID_TARGET;
+        /** Shards alive in capture(), their positions as x, y, z triples and the target each hits. */
+        private final List<FallingBlock> captured = new ArrayList<>();
+        private double[] positions = new double[3 * 4];
+        private int[] hitTargets = new int[4];
 
-        if (type == Material.LAVA) {
-            type = Material.MAGMA_BLOCK;
-            damage *= lavaMultiplier;
+        private final Predicate<Entity> targets = this::isTarget;
+        private final TargetSnapshot candidates = new TargetSnapshot();
+
+        private long duration;
+        private double damage;
+        private int maxBlocks;
+        private double lavaMultiplier;
+
+        private Player player;
+        private Location playerLocation;
+        private Location cachedloc;
+
+        private Instance() {
+            super(EarthKick.this);
         }
 
-        spawnBlocks(player, target, type);
+        @Override
+        protected SpellResult execute(SpellCaster caster) {
 
-        startTime = System.currentTimeMillis();
-        playerLocation = player.getLocation();
+            player = caster.getPlayer();
+            Settings settings = EarthKick.this.settings;
 
-        ThreadUtil.ensureLocationTimer(cachedloc, () -> progress(player), 0, 1);
+            this.damage = settings.damage();
+            this.maxBlocks = settings.maxBlocks();
+            this.lavaMultiplier = settings.lavaMultiplier();
+            this.duration = settings.duration();
 
-        player.getWorld().playSound(player.getLocation(),
-                Sound.BLOCK_STONE_BREAK, 1f, 0.8f);
+            Block target = player.getTargetBlockExact(3);
+            if (target == null) return SpellResult.INVALID_TARGET;
 
-        return SpellResult.SUCCESS;
-    }
+            Material type = target.getType();
+
+            if (!isEarth(type)) return SpellResult.INVALID_TARGET;
+
+            if (type == Material.LAVA) {
+                type = Material.MAGMA_BLOCK;
+                damage *= lavaMultiplier;
+            }
+
+            playerLocation = player.getLocation();
+            activeBlocks = ACTIVE_BLOCKS.get(playerLocation);
+
+            spawnBlocks(player, target, type);
 
-    private void spawnBlocks(Player player, Block block, Material type) {
+            cachedloc = playerLocation.clone();
+
+            player.getWorld().playSound(player.getLocation(),
+                    Sound.BLOCK_STONE_BREAK, 1f, 0.8f);
+
+            return SpellResult.SUCCESS;
+        }
 
-        Random random = new Random();
+        private void spawnBlocks(Player player, Block block, Material type) {
 
-        for (int i = 0; i < maxBlocks; i++) {
+            Random random = new Random();
 
-            Location spawnLoc = block.getLocation().add(0.5, 1.2, 0.5);
-            FallingBlock fb = player.getWorld().spawnFallingBlock(spawnLoc, type.createBlockData());
+            for (int i = 0; i < maxBlocks; i++) {
 
-            fb.setDropItem(false);
-            fb.setHurtEntities(false);
+                Location spawnLoc = block.getLocation().add(0.5, 1.2, 0.5);
+                FallingBlock fb = player.getWorld().spawnFallingBlock(spawnLoc, type.createBlockData());
 
-            Location dirLoc = player.getLocation().clone();
-            dirLoc.setPitch(0);
-            dirLoc.setYaw(dirLoc.getYaw() + random.nextInt(25) - 12);
+                fb.setDropItem(false);
+                fb.setHurtEntities(false);
 
-            Vector velocity = dirLoc.getDirection();
-            velocity.setY(Math.max(0.3, Math.random() / 2));
-            velocity.setX(velocity.getX() / 1.2);
-            velocity.setZ(velocity.getZ() / 1.2);
+                Location dirLoc = player.getLocation().clone();
+                dirLoc.setPitch(0);
+                dirLoc.setYaw(dirLoc.getYaw() + random.nextInt(25) - 12);
 
-            fb.setVelocity(velocity);
+                Vector velocity = dirLoc.getDirection();
+                velocity.setY(Math.max(0.3, Math.random() / 2));
+                velocity.setX(velocity.getX() / 1.2);
+                velocity.setZ(velocity.getZ() / 1.2);
 
-            spawnedBlocks.add(fb);
-            ACTIVE_BLOCKS.add(fb);
+                fb.setVelocity(velocity);
+
+                spawnedBlocks.add(fb);
+                activeBlocks.add(fb);
+            }
         }
-    }
 
-    private void progress(Player player) {
+        @Override
+        public boolean isTwoPhase() {
+            return true;
+        }
+
+        @Override
+        protected void capture() {
+
+            captured.clear();
+            candidates.clear();
 
-        Iterator<FallingBlock> iterator = spawnedBlocks.iterator();
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
 
-        while (iterator.hasNext()) {
+            for (FallingBlock fb : spawnedBlocks) {
 
-            FallingBlock fb = iterator.next();
+                if (fb == null || fb.isDead() || !activeBlocks.contains(fb)) continue;
 
-            if (fb == null || fb.isDead() || !ACTIVE_BLOCKS.contains(fb)) {
-                iterator.remove();
-                continue;
+                Location loc = fb.getLocation(cachedloc);
+
+                int i = captured.size() * 3;
+                if (i == positions.length) positions = Arrays.copyOf(positions, positions.length * 2);
+
+                positions[i] = loc.getX();
+                positions[i + 1] = loc.getY();
+                positions[i + 2] = loc.getZ();
+                captured.add(fb);
+
+                minX = Math.min(minX, loc.getX());
+                minY = Math.min(minY, loc.getY());
+                minZ = Math.min(minZ, loc.getZ());
+                maxX = Math.max(maxX, loc.getX());
+                maxY = Math.max(maxY, loc.getY());
+                maxZ = Math.max(maxZ, loc.getZ());
             }
 
-            cachedloc = fb.getLocation();
-            Location loc = fb.getLocation();
+            if (captured.isEmpty()) return;
 
-            // Block crack particles (Spigot safe)
-            loc.getWorld().spawnParticle(
-                    Particle.BLOCK_CRACK,
-                    loc,
-                    3,
-                    0.1, 0.1, 0.1,
-                    fb.getBlockData()
-            );
+            // One query around all shards instead of one per shard.
+            candidates.capture(cachedloc.getWorld(), new BoundingBox(
+                    minX - HIT_RADIUS, minY - HIT_RADIUS, minZ - HIT_RADIUS,
+                    maxX + HIT_RADIUS, maxY + HIT_RADIUS, maxZ + HIT_RADIUS
+            ), targets);
+        }
 
-            for (Entity entity : loc.getWorld().getNearbyEntities(loc, 1.5, 1.5, 1.5)) {
+        @Override
+        protected void compute() {
 
-                if (!(entity instanceof LivingEntity living)) continue;
-                if (living.equals(player)) continue;
-                if (!DamageHandler.isValidTarget(player, living)) continue;
+            int count = captured.size();
+            if (hitTargets.length < count) hitTargets = new int[count];
+
+            for (int i = 0; i < count; i++) {
+
+                double x = positions[i * 3];
+                double y = positions[i * 3 + 1];
+                double z = positions[i * 3 + 2];
+
+                hitTargets[i] = -1;
+
+                for (int target = 0; target < candidates.size(); target++) {
+
+                    if (candidates.overlaps(target, x, y, z, HIT_RADIUS)) {
+                        hitTargets[i] = target;
+                        break;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void progress() {
+
+            Iterator<FallingBlock> iterator = spawnedBlocks.iterator();
+
+            while (iterator.hasNext()) {
+
+                FallingBlock fb = iterator.next();
+
+                if (fb == null || fb.isDead() || !activeBlocks.contains(fb)) {
+                    iterator.remove();
+                    continue;
+                }
+
+                Location loc = fb.getLocation(cachedloc);
+
+                // Block crack particles (Spigot safe)
+                ParticleEffect.BLOCK_CRACK.display(loc, 3, 0.1, 0.1, 0.1, fb.getBlockData());
+            }
+
+            for (int i = 0; i < captured.size(); i++) {
+
+                if (hitTargets[i] < 0) continue;
+
+                FallingBlock fb = captured.get(i);
+                if (!spawnedBlocks.contains(fb)) continue;
+
+                LivingEntity living = (LivingEntity) candidates.get(hitTargets[i]);
+                if (!living.isValid()) continue;
 
                 DamageHandler.damage(player, living, damage, getName(), getElement());
                 living.setNoDamageTicks(0);
 
                 fb.remove();
-                ACTIVE_BLOCKS.remove(fb);
-                iterator.remove();
-                break;
+                activeBlocks.remove(fb);
+                spawnedBlocks.remove(fb);
+            }
+
+            if (spawnedBlocks.isEmpty() ||
+                    System.currentTimeMillis() > getStartTime() + duration) {
+                remove();
             }
         }
 
-        if (spawnedBlocks.isEmpty() ||
-                System.currentTimeMillis() > startTime + duration) {
-            remove();
+        private boolean isTarget(Entity entity) {
+            return entity instanceof LivingEntity living
+                    && !living.equals(player)
+                    && DamageHandler.isValidTarget(player, living);
         }
-    }
 
-    private boolean isEarth(Material mat) {
-        return mat == Material.DIRT
-                || mat == Material.GRASS_BLOCK
-                || mat == Material.STONE
-                || mat == Material.SAND
-                || mat == Material.RED_SAND
-                || mat == Material.GRAVEL
-                || mat == Material.CLAY
-                || mat == Material.TERRACOTTA
-                || mat == Material.PACKED_MUD
-                || mat == Material.MUD
-                || mat == Material.LAVA;
-    }
+        @Override
+        protected void onStop() {
+            for (FallingBlock fb : spawnedBlocks) {
+                fb.remove();
+                activeBlocks.remove(fb);
+            }
+            spawnedBlocks.clear();
 
-    @Override
-    public void remove() {
-        super.remove();
-        for (FallingBlock fb : spawnedBlocks) {
-            fb.remove();
-            ACTIVE_BLOCKS.remove(fb);
+            if (activeBlocks != null && activeBlocks.isEmpty()) ACTIVE_BLOCKS.discard(playerLocation, activeBlocks);
+        }
+
+        @Override
+        public @NotNull Location getLocation() {
+            return playerLocation;
         }
-        spawnedBlocks.clear();
     }
 
-    @Override public void progress() {}
-    @Override protected void onLoad() {}
-    @Override protected void onStop() {}
+    private record Settings(double damage, int maxBlocks, double lavaMultiplier, long duration) {
 
-    @Override public boolean isSneakingAbility() { return true; }
-    @Override public Action getAbilityActivationAction() { return null; }
-    @Override public MagicElement getElement() { return MagicElement.EARTH; }
-
-    @Override
-    public @NotNull Location getLocation() {
-        return playerLocation;
+        static Settings load(SpellConfig config) {
+            return new Settings(
+                    config.getDouble("damage", 6.0),
+                    config.getInt("max-blocks", 4, 1, 64),
+                    config.getDouble("lava-multiplier", 1.5),
+                    config.getLong("duration", 2500)
+            );
+        }
     }
 }
@@ -1,12 +1,12 @@
 package com.spellcraft.spells;
 
-import com.spellcraft.SpellCraftPlugin;
 import com.spellcraft.api.SpellCategory;
 import com.spellcraft.api.SpellCaster;
 import com.spellcraft.api.SpellResult;
 import com.spellcraft.api.magic.MagicElement;
 import com.spellcraft.core.AbstractSpell;
-import com.spellcraft.util.ThreadUtil;
+import com.spellcraft.core.ActiveSpell;
+import com.spellcraft.core.SpellConfig;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Fireball;
@@ -17,74 +17,113 @@ import org.jetbrains.annotations.NotNull;
 
 public class FireballSpell extends AbstractSpell {
 
-    private Location currentLocation;
+    private volatile Settings settings = Settings.load(SpellConfig.empty("fireball"));
 
     public FireballSpell() {
         super(
                 "Fireball",
                 "Launch a blazing fireball that explodes on impact",
                 SpellCategory.COMBAT,
-                SpellCraftPlugin.getInstance().getConfig().getInt("spells.fireball.magic-cost", 30),
-                SpellCraftPlugin.getInstance().getConfig().getLong("spells.fireball.cooldown", 5000),
-                SpellCraftPlugin.getInstance().getConfig().getDouble("spells.fireball.range", 50.0),
-                SpellCraftPlugin.getInstance().getConfig().getBoolean("spells.fireball.enabled", true),
+                30,
+                5000L,
+                50.0,
+                true,
                 "Left Click Air"
         );
     }
 
     @Override
-    protected SpellResult execute(SpellCaster caster) {
-        Player player = caster.getPlayer();
-        Vector direction = player.getEyeLocation().getDirection();
-
-        Fireball fireball = player.getWorld().spawn(player.getEyeLocation().add(direction.clone().multiply(2)), Fireball.class);
-        fireball.setShooter(player);
-        fireball.setVelocity(direction.multiply(SpellCraftPlugin.getInstance().getConfig().getDouble("spells.fireball.speed", 1.5)));
-        fireball.setYield((float) SpellCraftPlugin.getInstance().getConfig().getDouble("spells.fireball.explosion-power", 2.0));
-        fireball.setIsIncendiary(true);
-
-        currentLocation = fireball.getLocation().clone();
-        Location start = currentLocation.clone();
-
-        ThreadUtil.ensureLocationTimer(fireball.getLocation(), () -> {
-            if (!fireball.isValid() || fireball.isDead()) return;
-
-            currentLocation = fireball.getLocation().clone();
-
-            if (fireball.getLocation().distanceSquared(start) >= Math.pow(SpellCraftPlugin.getInstance().getConfig().getDouble("spells.fireball.range", 20.0), 2)) {
-                fireball.remove();
-            }
-        }, 1L, 1L);
-
-        return SpellResult.SUCCESS;
+    public boolean isSneakingAbility() {
+        return false;
     }
 
     @Override
-    public void progress() {}
+    public Action getAbilityActivationAction() {
+        return Action.LEFT_CLICK_AIR;
+    }
 
     @Override
-    protected void onLoad() {}
+    public MagicElement getElement() {
+        return MagicElement.FIRE;
+    }
 
     @Override
-    protected void onStop() {}
+    protected String getConfigKey() {
+        return "fireball";
+    }
 
     @Override
-    public boolean isSneakingAbility() {
-        return false;
+    protected void loadSettings(SpellConfig config) {
+        settings = Settings.load(config);
     }
 
     @Override
-    public Action getAbilityActivationAction() {
-        return Action.LEFT_CLICK_AIR;
+    protected ActiveSpell createInstance() {
+        return new Instance();
     }
 
-    @Override
-    public MagicElement getElement() {
-        return MagicElement.FIRE;
+    private final class Instance extends ActiveSpell {
+
+        private Location currentLocation;
+
+        private Fireball fireball;
+        private Location start;
+        private double maxRange;
+
+        private Instance() {
+            super(FireballSpell.this);
+        }
+
+        @Override
+        protected SpellResult execute(SpellCaster caster) {
+            Settings settings = FireballSpell.this.settings;
+            Player player = caster.getPlayer();
+            Vector direction = player.getEyeLocation().getDirection();
+
+            fireball = player.getWorld().spawn(player.getEyeLocation().add(direction.clone().multiply(2)), Fireball.class);
+            fireball.setShooter(player);
+            fireball.setVelocity(direction.multiply(settings.speed()));
+            fireball.setYield((float) settings.explosionPower());
+            fireball.setIsIncendiary(true);
+
+            currentLocation = fireball.getLocation().clone();
+            start = currentLocation.clone();
+            maxRange = getRange();
+
+            return SpellResult.SUCCESS;
+        }
+
+        @Override
+        public void progress() {
+            if (!fireball.isValid() || fireball.isDead()) {
+                remove();
+                return;
+            }
+
+            fireball.getLocation(currentLocation);
+
+            if (currentLocation.distanceSquared(start) >= maxRange * maxRange) {
+                fireball.remove();
+                remove();
+            }
+        }
+
+        @Override
+        protected void onStop() {}
+
+        @Override
+        public @NotNull Location getLocation() {
+            return currentLocation != null ? currentLocation : new Location(Bukkit.getWorlds().getFirst(), 0, 0, 0);
+        }
     }
 
-    @Override
-    public @NotNull Location getLocation() {
-        return currentLocation != null ? currentLocation.clone() : new Location(Bukkit.getWorlds().getFirst(), 0, 0, 0);
+    private record Settings(double speed, double explosionPower) {
+
+        static Settings load(SpellConfig config) {
+            return new Settings(
+                    config.getDouble("speed", 1.5),
+                    config.getDouble("explosion-power", 2.0, 0.0, 20.0)
+            );
+        }
     }
 }
@@ -1,125 +1,223 @@
 package com.spellcraft.spells;
 
-import com.spellcraft.SpellCraftPlugin;
 import com.spellcraft.api.SpellCaster;
 import com.spellcraft.api.SpellCategory;
 import com.spellcraft.api.SpellResult;
 import com.spellcraft.api.magic.MagicElement;
 import com.spellcraft.core.AbstractSpell;
+import com.spellcraft.core.ActiveSpell;
+import com.spellcraft.core.SpellAnchor;
+import com.spellcraft.core.SpellConfig;
+import com.spellcraft.util.BeamQuery;
 import com.spellcraft.util.DamageHandler;
+import com.spellcraft.util.MutableVector;
 import com.spellcraft.util.ParticleEffect;
-import com.spellcraft.util.ThreadUtil;
 import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.Action;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.function.Predicate;
+
 public class Flamethrower extends AbstractSpell {
 
-    private Location pointloc;
-    private Location playerloc;
+    private volatile Settings settings = Settings.load(SpellConfig.empty("flamethrower"));
 
     public Flamethrower() {
         super(
                 "Flamethrower",
                 "Shoot flames at your enemies!",
                 SpellCategory.COMBAT,
-                SpellCraftPlugin.getInstance().getConfig().getInt("spells.flamethrower.magic-cost", 30),
-                SpellCraftPlugin.getInstance().getConfig().getLong("spells.flamethrower.cooldown", 5000L),
-                SpellCraftPlugin.getInstance().getConfig().getDouble("spells.flamethrower.range", 50.0),
-                SpellCraftPlugin.getInstance().getConfig().getBoolean("spells.flamethrower.enabled", true),
+                30,
+                5000L,
+                50.0,
+                true,
                 "Crouch in front of your enemy!"
         );
     }
 
     @Override
-    protected SpellResult execute(SpellCaster caster) {
-        Player player = caster.getPlayer();
+    protected void onLoad() { }
 
-        double maxRange = getRange();
-        double step = 0.6;
-        double hitRadius = SpellCraftPlugin.getInstance().getConfig()
-                .getDouble("spells.flamethrower.hit-radius", 1.2);
-        double damage = SpellCraftPlugin.getInstance().getConfig()
-                .getDouble("spells.flamethrower.damage", 2.0);
-        int fireTicks = SpellCraftPlugin.getInstance().getConfig()
-                .getInt("spells.flamethrower.fire-ticks", 40);
+    @Override
+    public boolean isSneakingAbility() {
+        return true;
+    }
 
-        int maxDurationTicks = SpellCraftPlugin.getInstance().getConfig()
-                .getInt("spells.flamethrower.duration-ticks", 60); // 3 seconds default
+    @Override
+    public Action getAbilityActivationAction() {
+        return null;
+    }
 
-        final int[] livedTicks = {0};
+    @Override
+    public MagicElement getElement() {
+        return MagicElement.FIRE;
+    }
 
-        ThreadUtil.ensureLocationTimer(player.getEyeLocation(), () -> {
+    @Override
+    protected String getConfigKey() {
+        return "flamethrower";
+    }
 
-            // STOP CONDITIONS
-            if (!player.isOnline() || player.isDead() || !player.isSneaking()) {
-                remove();
-                return;
-            }
+    @Override
+    protected void loadSettings(SpellConfig config) {
+        settings = Settings.load(config);
+    }
 
-            if (livedTicks[0]++ > maxDurationTicks) {
-                remove();
-                return;
-            }
+    @Override
+    protected ActiveSpell createInstance() {
+        return new Instance();
+    }
+
+    private final class Instance extends ActiveSpell {
+
+        private Location playerloc;
+
+        private final MutableVector eye = new MutableVector();
+        private final MutableVector dir = new MutableVector();
+        private final MutableVector point = new MutableVector();
+        private final Predicate<Entity> targets = this::isTarget;
+        private final BeamQuery beam = new BeamQuery();
+        private Location sample;
+
+        /** Whether the beam was captured this tick; set by capture(). */
+        private boolean firing;
+
+        private Player player;
+        private double maxRange;
+        private double hitRadius;
+        private double spread;
+        private double damage;
+        private int fireTicks;
+        private int maxDurationTicks;
+        private int livedTicks;
+
+        private Instance() {
+            super(Flamethrower.this);
+        }
+
+        @Override
+        protected SpellResult execute(SpellCaster caster) {
+            player = caster.getPlayer();
 
-            Location eye = player.getEyeLocation();
-            var dir = eye.getDirection().normalize();
+            Settings settings = Flamethrower.this.settings;
+
+            maxRange = getRange();
+            hitRadius = settings.hitRadius();
+            spread = settings.spread();
+            damage = settings.damage();
+            fireTicks = settings.fireTicks();
+            maxDurationTicks = settings.durationTicks();
+
+            livedTicks = 0;
             playerloc = player.getLocation();
+            sample = playerloc.clone();
 
-            for (double d = 0; d < maxRange; d += step) {
-                Location point = eye.clone().add(dir.clone().multiply(d));
-                pointloc = point;
+            return SpellResult.SUCCESS;
+        }
 
-                if (point.getBlock().getType().isSolid()) break;
+        @Override
+        public boolean isTwoPhase() {
+            return true;
+        }
 
-                ParticleEffect.FLAME.display(point, 2);
-                ParticleEffect.SMOKE_NORMAL.display(point, 1);
+        @Override
+        protected void capture() {
 
-                point.getWorld().getNearbyEntities(point, hitRadius, hitRadius, hitRadius)
-                        .forEach(entity -> {
-                            if (!(entity instanceof LivingEntity living)) return;
-                            if (living.equals(player)) return;
-                            if (!DamageHandler.isValidTarget(player, living)) return;
+            firing = false;
 
-                            DamageHandler.damage(player, living, damage, getName(), getElement());
-                            living.setFireTicks(Math.max(living.getFireTicks(), fireTicks));
-                        });
-            }
+            if (!player.isOnline() || player.isDead() || !player.isSneaking()) return;
 
-        }, 0, 1);
+            eye.setEye(player, playerloc);
+            dir.setDirection(playerloc);
 
-        return SpellResult.SUCCESS;
-    }
+            World world = playerloc.getWorld();
+            sample.setWorld(world);
 
+            // Blocks and entities can only be read here; the beam stops at the first solid block.
+            beam.capture(world, eye, dir, maxRange, hitRadius, spread, targets);
+            firing = true;
+        }
 
-    @Override
-    public void progress() { }
+        @Override
+        protected void compute() {
+            if (firing) beam.compute();
+        }
 
-    @Override
-    protected void onLoad() { }
+        @Override
+        public void progress() {
 
-    @Override
-    protected void onStop() { }
+            // STOP CONDITIONS
+            if (!player.isOnline() || player.isDead() || !player.isSneaking()) {
+                remove();
+                return;
+            }
 
-    @Override
-    public boolean isSneakingAbility() {
-        return true;
-    }
+            if (livedTicks++ > maxDurationTicks) {
+                remove();
+                return;
+            }
 
-    @Override
-    public Action getAbilityActivationAction() {
-        return null;
-    }
+            if (!firing) return;
 
-    @Override
-    public MagicElement getElement() {
-        return MagicElement.FIRE;
+            // Far from players, draw the beam more coarsely.
+            double step = 0.6 * getDetail().getSampleScale();
+
+            for (int i = 0; i * step < beam.getLength(); i++) {
+                point.set(eye).add(dir, i * step).toLocation(sample);
+
+                ParticleEffect.FLAME.display(sample, 2);
+                ParticleEffect.SMOKE_NORMAL.display(sample, 1);
+            }
+
+            for (int i = 0; i < beam.size(); i++) {
+                LivingEntity living = (LivingEntity) beam.get(i);
+                if (!living.isValid()) continue;
+
+                DamageHandler.damage(player, living, damage, getName(), getElement());
+                living.setFireTicks(Math.max(living.getFireTicks(), fireTicks));
+            }
+        }
+
+        private boolean isTarget(Entity entity) {
+            return entity instanceof LivingEntity living
+                    && !living.equals(player)
+                    && DamageHandler.isValidTarget(player, living);
+        }
+
+        @Override
+        protected void onStop() { }
+
+        /** The caster's position: the beam's end may lie in a chunk that is not loaded. */
+        @Override
+        public @NotNull Location getLocation() {
+            return playerloc;
+        }
+
+        @Override
+        public SpellAnchor getAnchor() {
+            return SpellAnchor.ENTITY;
+        }
+
+        @Override
+        public Entity getAnchorEntity() {
+            return player;
+        }
     }
 
-    @Override
-    public @NotNull Location getLocation() {
-        return (pointloc == null) ? playerloc : pointloc;
+    private record Settings(double hitRadius, double spread, double damage, int fireTicks, int durationTicks) {
+
+        static Settings load(SpellConfig config) {
+            return new Settings(
+                    config.getDouble("hit-radius", 1.2),
+                    config.getDouble("spread", 0.0), // degrees the flames widen by, 0 = straight beam
+                    config.getDouble("damage", 2.0),
+                    config.getInt("fire-ticks", 40),
+                    config.getInt("duration-ticks", 60) // 3 seconds default
+            );
+        }
     }
 }
@@ -6,55 +6,34 @@ import com.spellcraft.api.SpellCaster;
 import com.spellcraft.api.SpellResult;
 import com.spellcraft.api.magic.MagicElement;
 import com.spellcraft.core.AbstractSpell;
+import com.spellcraft.core.ActiveSpell;
+import com.spellcraft.core.SpellAnchor;
+import com.spellcraft.util.ThreadUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.Action;
-import org.bukkit.util.RayTraceResult;
 import org.jetbrains.annotations.NotNull;
 
-public class LightningSpell extends AbstractSpell {
+import java.util.concurrent.CompletableFuture;
 
-    private Location currentLocation;
+public class LightningSpell extends AbstractSpell {
 
     public LightningSpell() {
         super(
                 "Lightning",
                 "Call down a lightning bolt at your target location",
                 SpellCategory.ELEMENTAL,
-                SpellCraftPlugin.getInstance().getConfig().getInt("spells.lightning.magic-cost", 35),
-                SpellCraftPlugin.getInstance().getConfig().getLong("spells.lightning.cooldown", 8000),
-                SpellCraftPlugin.getInstance().getConfig().getDouble("spells.lightning.range", 40.0),
-                SpellCraftPlugin.getInstance().getConfig().getBoolean("spells.lightning.enabled", true),
+                35,
+                8000L,
+                40.0,
+                true,
                 "Left Click while Sneaking"
         );
     }
 
-    @Override
-    protected SpellResult execute(SpellCaster caster) {
-        Player player = caster.getPlayer();
-
-        RayTraceResult result = player.rayTraceBlocks(range);
-        if (result == null || result.getHitBlock() == null) return SpellResult.INVALID_TARGET;
-
-        Block targetBlock = result.getHitBlock();
-        currentLocation = targetBlock.getLocation().clone().add(0, 1, 0);
-
-        player.getWorld().strikeLightning(currentLocation);
-
-        return SpellResult.SUCCESS;
-    }
-
-    @Override
-    public void progress() {}
-
-    @Override
-    protected void onLoad() {}
-
-    @Override
-    protected void onStop() {}
-
     @Override
     public boolean isSneakingAbility() {
         return true;
@@ -71,7 +50,79 @@ public class LightningSpell extends AbstractSpell {
     }
 
     @Override
-    public @NotNull Location getLocation() {
-        return currentLocation != null ? currentLocation.clone() : new Location(Bukkit.getWorlds().getFirst(), 0, 0, 0);
+    protected String getConfigKey() {
+        return "lightning";
+    }
+
+    @Override
+    protected ActiveSpell createInstance() {
+        return new Instance();
+    }
+
+    private final class Instance extends ActiveSpell {
+
+        private Location currentLocation;
+        private Player player;
+        private CompletableFuture<Block> target;
+
+        private Instance() {
+            super(LightningSpell.this);
+        }
+
+        @Override
+        protected SpellResult execute(SpellCaster caster) {
+            player = caster.getPlayer();
+            currentLocation = player.getLocation();
+
+            // Long ranges would read many blocks here; trace them off the tick thread instead.
+            target = SpellCraftPlugin.getInstance().getRaycaster().rayTraceBlocks(player, getRange());
+            target.thenAccept(this::strike);
+
+            return SpellResult.SUCCESS;
+        }
+
+        /**
+         * Strikes the block the player looked at, or refunds the cast if there was none.
+         */
+        private void strike(Block targetBlock) {
+            if (isRemoved()) return;
+
+            if (targetBlock == null) {
+                refund();
+                return;
+            }
+
+            currentLocation = targetBlock.getLocation().clone().add(0, 1, 0);
+
+            // The block may lie in another region on Folia.
+            Location strikeLocation = currentLocation.clone();
+            ThreadUtil.ensureLocation(strikeLocation, () -> strikeLocation.getWorld().strikeLightning(strikeLocation));
+
+            remove();
+        }
+
+        @Override
+        public void progress() {
+            // Waits for the raycast; refunded if it fails, times out or the player leaves.
+            if (!player.isOnline() || target.isCompletedExceptionally()) refund();
+        }
+
+        @Override
+        protected void onStop() {}
+
+        @Override
+        public @NotNull Location getLocation() {
+            return currentLocation != null ? currentLocation.clone() : new Location(Bukkit.getWorlds().getFirst(), 0, 0, 0);
+        }
+
+        @Override
+        public SpellAnchor getAnchor() {
+            return SpellAnchor.ENTITY;
+        }
+
+        @Override
+        public Entity getAnchorEntity() {
+            return player;
+        }
     }
 }
@@ -1,11 +1,12 @@
 package com.spellcraft.spells;
 
-import com.spellcraft.SpellCraftPlugin;
 import com.spellcraft.api.SpellCategory;
 import com.spellcraft.api.SpellCaster;
 import com.spellcraft.api.SpellResult;
 import com.spellcraft.api.magic.MagicElement;
 import com.spellcraft.core.AbstractSpell;
+import com.spellcraft.core.ActiveSpell;
+import com.spellcraft.core.SpellConfig;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Particle;
@@ -18,46 +19,21 @@ import org.jetbrains.annotations.NotNull;
 
 public class ShieldSpell extends AbstractSpell {
 
-    private Location currentLocation;
+    private volatile int durationTicks = 200;
 
     public ShieldSpell() {
         super(
                 "Shield",
                 "Create a magical barrier that absorbs damage",
                 SpellCategory.PROTECTION,
-                SpellCraftPlugin.getInstance().getConfig().getInt("spells.shield.magic-cost", 25),
-                SpellCraftPlugin.getInstance().getConfig().getLong("spells.shield.cooldown", 12000),
+                25,
+                12000L,
                 null,
-                SpellCraftPlugin.getInstance().getConfig().getBoolean("spells.shield.enabled", true),
+                true,
                 "Right Click a Block while Sneaking"
         );
     }
 
-    @Override
-    protected SpellResult execute(SpellCaster caster) {
-        Player player = caster.getPlayer();
-        currentLocation = player.getLocation().clone();
-
-        player.addPotionEffect(new PotionEffect(PotionEffectType.DAMAGE_RESISTANCE,
-                SpellCraftPlugin.getInstance().getConfig().getInt("spells.shield.duration", 200), 1, false, true));
-        player.addPotionEffect(new PotionEffect(PotionEffectType.ABSORPTION,
-                SpellCraftPlugin.getInstance().getConfig().getInt("spells.shield.duration", 200), 1, false, true));
-
-        player.getWorld().spawnParticle(Particle.ENCHANTMENT_TABLE, currentLocation.add(0, 1, 0), 100, 1.0, 1.0, 1.0);
-        player.playSound(currentLocation, Sound.BLOCK_ENCHANTMENT_TABLE_USE, 1.0f, 1.0f);
-
-        return SpellResult.SUCCESS;
-    }
-
-    @Override
-    public void progress() {}
-
-    @Override
-    protected void onLoad() {}
-
-    @Override
-    protected void onStop() {}
-
     @Override
     public boolean isSneakingAbility() {
         return true;
@@ -74,7 +50,56 @@ public class ShieldSpell extends AbstractSpell {
     }
 
     @Override
-    public @NotNull Location getLocation() {
-        return currentLocation != null ? currentLocation.clone() : new Location(Bukkit.getWorlds().getFirst(), 0, 0, 0);
+    protected String getConfigKey() {
+        return "shield";
+    }
+
+    @Override
+    protected void loadSettings(SpellConfig config) {
+        durationTicks = config.getInt("duration", 200);
+    }
+
+    @Override
+    protected ActiveSpell createInstance() {
+        return new Instance();
+    }
+
+    private final class Instance extends ActiveSpell {
+
+        private Location currentLocation;
+
+        private Instance() {
+            super(ShieldSpell.this);
+        }
+
+        @Override
+        protected SpellResult execute(SpellCaster caster) {
+            Player player = caster.getPlayer();
+            currentLocation = player.getLocation().clone();
+            int duration = durationTicks;
+
+            player.addPotionEffect(new PotionEffect(PotionEffectType.DAMAGE_RESISTANCE,
+                    duration, 1, false, true));
+            player.addPotionEffect(new PotionEffect(PotionEffectType.ABSORPTION,
+                    duration, 1, false, true));
+
+            player.getWorld().spawnParticle(Particle.ENCHANTMENT_TABLE, currentLocation.add(0, 1, 0), 100, 1.0, 1.0, 1.0);
+            player.playSound(currentLocation, Sound.BLOCK_ENCHANTMENT_TABLE_USE, 1.0f, 1.0f);
+
+            return SpellResult.SUCCESS;
+        }
+
+        @Override
+        public void progress() {
+            remove();
+        }
+
+        @Override
+        protected void onStop() {}
+
+        @Override
+        public @NotNull Location getLocation() {
+            return currentLocation != null ? currentLocation.clone() : new Location(Bukkit.getWorlds().getFirst(), 0, 0, 0);
+        }
     }
 }
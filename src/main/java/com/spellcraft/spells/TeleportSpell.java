@@ -6,87 +6,150 @@ import com.spellcraft.api.SpellCaster;
 import com.spellcraft.api.SpellResult;
 import com.spellcraft.api.magic.MagicElement;
 import com.spellcraft.core.AbstractSpell;
+import com.spellcraft.core.ActiveSpell;
+import com.spellcraft.core.SpellAnchor;
+import com.spellcraft.util.ThreadUtil;
 import org.bukkit.*;
 import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.Action;
-import org.bukkit.util.RayTraceResult;
 import org.jetbrains.annotations.NotNull;
 
-public class TeleportSpell extends AbstractSpell {
+import java.util.concurrent.CompletableFuture;
 
-    private Location currentLocation;
+public class TeleportSpell extends AbstractSpell {
 
     public TeleportSpell() {
         super(
                 "Teleport",
                 "Instantly teleport to the location you're looking at",
                 SpellCategory.TRANSPORTATION,
-                SpellCraftPlugin.getInstance().getConfig().getInt("spells.teleport.magic-cost", 50),
-                SpellCraftPlugin.getInstance().getConfig().getLong("spells.teleport.cooldown", 15000),
-                SpellCraftPlugin.getInstance().getConfig().getDouble("spells.teleport.range", 30.0),
-                SpellCraftPlugin.getInstance().getConfig().getBoolean("spells.teleport.enabled", true),
+                50,
+                15000L,
+                30.0,
+                true,
                 "Left Click Air"
         );
     }
 
     @Override
-    protected SpellResult execute(SpellCaster caster) {
-        Player player = caster.getPlayer();
+    public boolean isSneakingAbility() {
+        return false;
+    }
 
-        RayTraceResult result = player.rayTraceBlocks(range);
-        if (result == null || result.getHitBlock() == null) return SpellResult.INVALID_TARGET;
+    @Override
+    public Action getAbilityActivationAction() {
+        return Action.LEFT_CLICK_AIR;
+    }
 
-        Block targetBlock = result.getHitBlock();
-        Location teleportLocation = targetBlock.getLocation().clone().add(0, 1, 0);
+    @Override
+    public MagicElement getElement() {
+        return MagicElement.VOID;
+    }
 
-        if (teleportLocation.getBlock().getType() != Material.AIR ||
-                teleportLocation.clone().add(0, 1, 0).getBlock().getType() != Material.AIR) {
-            return SpellResult.INVALID_TARGET;
+    @Override
+    protected String getConfigKey() {
+        return "teleport";
+    }
+
+    @Override
+    protected ActiveSpell createInstance() {
+        return new Instance();
+    }
+
+    private final class Instance extends ActiveSpell {
+
+        private Location currentLocation;
+        private Player player;
+        private CompletableFuture<Block> target;
+
+        private Instance() {
+            super(TeleportSpell.this);
         }
 
-        teleportLocation.setYaw(player.getLocation().getYaw());
-        teleportLocation.setPitch(player.getLocation().getPitch());
+        @Override
+        protected SpellResult execute(SpellCaster caster) {
+            player = caster.getPlayer();
+            currentLocation = player.getLocation();
 
-        player.getWorld().spawnParticle(Particle.PORTAL, player.getLocation().add(0, 1, 0), 50, 0.5, 0.5, 0.5);
-        player.playSound(player.getLocation(), Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 1.0f);
+            // Long ranges would read many blocks here; trace them off the tick thread instead.
+            target = SpellCraftPlugin.getInstance().getRaycaster().rayTraceBlocks(player, getRange());
+            target.thenAccept(this::teleport);
 
-        player.teleport(teleportLocation);
+            return SpellResult.SUCCESS;
+        }
 
-        player.getWorld().spawnParticle(Particle.PORTAL, teleportLocation.add(0, 1, 0), 50, 0.5, 0.5, 0.5);
-        player.playSound(teleportLocation, Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 1.0f);
+        /**
+         * Checks the space above the block the player looked at, on the thread owning it.
+         */
+        private void teleport(Block targetBlock) {
+            if (isRemoved()) return;
 
-        currentLocation = teleportLocation.clone();
+            if (targetBlock == null) {
+                refund();
+                return;
+            }
 
-        return SpellResult.SUCCESS;
-    }
+            Location teleportLocation = targetBlock.getLocation().clone().add(0, 1, 0);
 
-    @Override
-    public void progress() {}
+            ThreadUtil.ensureLocation(teleportLocation, () -> {
+                boolean clear = teleportLocation.getBlock().getType() == Material.AIR
+                        && teleportLocation.clone().add(0, 1, 0).getBlock().getType() == Material.AIR;
 
-    @Override
-    protected void onLoad() {}
+                ThreadUtil.ensureEntity(player, () -> arrive(teleportLocation, clear));
+            });
+        }
 
-    @Override
-    protected void onStop() {}
+        /**
+         * Teleports the player back on their own thread, or refunds the cast if there was no room.
+         */
+        private void arrive(Location teleportLocation, boolean clear) {
+            if (isRemoved()) return;
 
-    @Override
-    public boolean isSneakingAbility() {
-        return false;
-    }
+            if (!clear) {
+                refund();
+                return;
+            }
 
-    @Override
-    public Action getAbilityActivationAction() {
-        return Action.LEFT_CLICK_AIR;
-    }
+            teleportLocation.setYaw(player.getLocation().getYaw());
+            teleportLocation.setPitch(player.getLocation().getPitch());
 
-    @Override
-    public MagicElement getElement() {
-        return MagicElement.VOID;
-    }
+            player.getWorld().spawnParticle(Particle.PORTAL, player.getLocation().add(0, 1, 0), 50, 0.5, 0.5, 0.5);
+            player.playSound(player.getLocation(), Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 1.0f);
 
-    @Override
-    public @NotNull Location getLocation() {
-        return currentLocation != null ? currentLocation.clone() : new Location(Bukkit.getWorlds().getFirst(), 0, 0, 0);
+            player.teleport(teleportLocation);
+
+            player.getWorld().spawnParticle(Particle.PORTAL, teleportLocation.add(0, 1, 0), 50, 0.5, 0.5, 0.5);
+            player.playSound(teleportLocation, Sound.ENTITY_ENDERMAN_TELEPORT, 1.0f, 1.0f);
+
+            currentLocation = teleportLocation.clone();
+
+            remove();
+        }
+
+        @Override
+        public void progress() {
+            // Waits for the raycast; refunded if it fails, times out or the player leaves.
+            if (!player.isOnline() || target.isCompletedExceptionally()) refund();
+        }
+
+        @Override
+        protected void onStop() {}
+
+        @Override
+        public @NotNull Location getLocation() {
+            return currentLocation != null ? currentLocation.clone() : new Location(Bukkit.getWorlds().getFirst(), 0, 0, 0);
+        }
+
+        @Override
+        public SpellAnchor getAnchor() {
+            return SpellAnchor.ENTITY;
+        }
+
+        @Override
+        public Entity getAnchorEntity() {
+            return player;
+        }
     }
 }
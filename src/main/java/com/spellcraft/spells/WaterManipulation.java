@@ -1,178 +1,251 @@
 package com.spellcraft.spells;
 
-import com.spellcraft.SpellCraftPlugin;
 import com.spellcraft.api.SpellCaster;
 import com.spellcraft.api.SpellCategory;
 import com.spellcraft.api.SpellResult;
 import com.spellcraft.api.magic.MagicElement;
 import com.spellcraft.core.AbstractSpell;
+import com.spellcraft.core.ActiveSpell;
+import com.spellcraft.core.SpellConfig;
 import com.spellcraft.util.DamageHandler;
+import com.spellcraft.util.MutableVector;
+import com.spellcraft.util.ProjectileStepper;
 import com.spellcraft.util.TempBlock;
-import com.spellcraft.util.ThreadUtil;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.Action;
-import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 
-public class WaterManipulation extends AbstractSpell {
-
-    private Location currentLoc;
-    private Location origin;
-    private Vector direction;
-
-    private TempBlock water;
-    private Player player;
+import java.util.function.Predicate;
 
-    private double speed;
-    private double damage;
-    private double hitRadius;
-    private int maxTicks;
-    private double range;
+public class WaterManipulation extends AbstractSpell {
 
-    private int lived;
+    private volatile Settings settings = Settings.load(SpellConfig.empty("watermanipulation"));
 
     public WaterManipulation() {
         super(
                 "WaterManipulation",
                 "Shoot and control water in mid-air",
                 SpellCategory.COMBAT,
-                SpellCraftPlugin.getInstance().getConfig().getInt("spells.watermanipulation.magic-cost"),
-                SpellCraftPlugin.getInstance().getConfig().getLong("spells.watermanipulation.cooldown"),
-                SpellCraftPlugin.getInstance().getConfig().getDouble("spells.watermanipulation.range"),
-                SpellCraftPlugin.getInstance().getConfig().getBoolean("spells.watermanipulation.enabled"),
+                25,
+                4000L,
+                40.0,
+                true,
                 "Left click to launch, hold sneak to control"
         );
     }
 
     @Override
-    protected SpellResult execute(SpellCaster caster) {
-
-        player = caster.getPlayer();
+    public boolean isSneakingAbility() {
+        return false;
+    }
 
-        var config = SpellCraftPlugin.getInstance().getConfig();
+    @Override
+    public Action getAbilityActivationAction() {
+        return Action.LEFT_CLICK_AIR;
+    }
 
-        speed = config.getDouble("spells.watermanipulation.speed");
-        damage = config.getDouble("spells.watermanipulation.damage");
-        hitRadius = config.getDouble("spells.watermanipulation.hit-radius");
-        maxTicks = config.getInt("spells.watermanipulation.max-ticks");
-        range = getRange();
+    @Override
+    public MagicElement getElement() {
+        return MagicElement.WATER;
+    }
 
-        origin = player.getEyeLocation();
-        currentLoc = origin.clone();
+    @Override
+    protected String getConfigKey() {
+        return "watermanipulation";
+    }
 
-        direction = origin.getDirection().normalize();
+    @Override
+    protected void loadSettings(SpellConfig config) {
+        settings = Settings.load(config);
+    }
 
-        Block block = currentLoc.getBlock();
+    @Override
+    protected ActiveSpell createInstance() {
+        return new Instance();
+    }
 
-        water = new TempBlock(block, Material.WATER);
+    private final class Instance extends ActiveSpell {
 
-        lived = 0;
+        private Location currentLoc;
+        private Location origin;
+        private final MutableVector direction = new MutableVector();
+        private final MutableVector position = new MutableVector();
+        private final ProjectileStepper stepper = new ProjectileStepper();
+        private final Predicate<Entity> targets = this::isTarget;
+        private Location playerLoc;
 
-        ThreadUtil.ensureLocationTimer(currentLoc, this::progressWater, 0, 1);
+        private TempBlock water;
+        private Player player;
 
-        return SpellResult.SUCCESS;
-    }
+        private double speed;
+        private double damage;
+        private double hitRadius;
+        private int maxTicks;
+        private double range;
 
-    private void progressWater() {
+        private int lived;
 
-        if (!player.isOnline() || player.isDead()) {
-            remove();
-            return;
+        private Instance() {
+            super(WaterManipulation.this);
         }
 
-        if (lived++ > maxTicks) {
-            remove();
-            return;
+        @Override
+        protected SpellResult execute(SpellCaster caster) {
+
+            player = caster.getPlayer();
+
+            Settings settings = WaterManipulation.this.settings;
+
+            speed = settings.speed();
+            damage = settings.damage();
+            hitRadius = settings.hitRadius();
+            maxTicks = settings.maxTicks();
+            range = getRange();
+
+            origin = player.getEyeLocation();
+            currentLoc = origin.clone();
+
+            direction.setDirection(origin);
+            playerLoc = player.getLocation();
+
+            Block block = currentLoc.getBlock();
+
+            water = new TempBlock(block, Material.WATER);
+
+            lived = 0;
+
+            return SpellResult.SUCCESS;
         }
 
-        if (origin.distanceSquared(currentLoc) > range * range) {
-            remove();
-            return;
+        @Override
+        public int getMaxTickInterval() {
+            return 4;
         }
 
-        if (player.isSneaking()) {
-            direction = player.getEyeLocation().getDirection().normalize();
+        @Override
+        public boolean canHibernate() {
+            return true;
         }
 
-        currentLoc.add(direction.clone().multiply(speed));
+        @Override
+        public void progress() {
 
-        Block block = currentLoc.getBlock();
+            if (!player.isOnline() || player.isDead()) {
+                remove();
+                return;
+            }
 
-        if (block.getType().isSolid()) {
-            remove();
-            return;
+            if (player.isSneaking()) {
+                direction.setDirection(player.getLocation(playerLoc));
+            }
+
+            // Far from players the engine calls this less often; step through every
+            // elapsed tick so the water never skips over blocks or entities.
+            for (int i = getTickDelta(); i > 0; i--) {
+                if (!step()) return;
+            }
+
+            Block block = currentLoc.getBlock();
+
+            if (water.isReverted() || !block.equals(water.getBlock())) {
+                water.revert();
+                water = new TempBlock(block, Material.WATER);
+            }
         }
 
-        water.revert();
-        water = new TempBlock(block, Material.WATER);
+        /**
+         * Moves the water by one tick.
+         *
+         * @return false if the water hit something or expired and was removed
+         */
+        private boolean step() {
+
+            if (lived++ > maxTicks) {
+                remove();
+                return false;
+            }
+
+            if (origin.distanceSquared(currentLoc) > range * range) {
+                remove();
+                return false;
+            }
+
+            ProjectileStepper.Outcome outcome = stepper.advance(
+                    currentLoc.getWorld(),
+                    position.set(currentLoc),
+                    direction,
+                    speed,
+                    hitRadius,
+                    targets
+            );
 
-        for (var entity : currentLoc.getWorld().getNearbyEntities(currentLoc, hitRadius, hitRadius, hitRadius)) {
+            position.toLocation(currentLoc);
 
-            if (!(entity instanceof LivingEntity living))
-                continue;
+            switch (outcome) {
 
-            if (living.equals(player))
-                continue;
+                case MOVED -> {
+                    return true;
+                }
 
-            if (!DamageHandler.isValidTarget(player, living))
-                continue;
+                case UNLOADED -> {
+                    hibernate();
+                    return false;
+                }
 
-            DamageHandler.damage(
-                    player,
-                    living,
-                    damage,
-                    getName(),
-                    getElement()
-            );
+                case ENTITY -> DamageHandler.damage(
+                        player,
+                        (LivingEntity) stepper.getHitEntity(),
+                        damage,
+                        getName(),
+                        getElement()
+                );
+            }
 
             remove();
-            return;
+            return false;
         }
-    }
 
-    public void remove() {
-
-        if (water != null && !water.isReverted()) {
-            water.revert();
+        private boolean isTarget(Entity entity) {
+            return entity instanceof LivingEntity living
+                    && !living.equals(player)
+                    && DamageHandler.isValidTarget(player, living);
         }
 
-        super.remove();
-    }
-
-    @Override
-    public void progress() {
-    }
-
-    @Override
-    protected void onLoad() {
-    }
-
-    @Override
-    protected void onStop() {
-        remove();
-    }
+        @Override
+        protected void onHibernate() {
+            // Reverting into an unloaded chunk would load it; the water then stays until the stream moves on or stops.
+            if (water != null && !water.isReverted() && isChunkLoaded(water.getBlock().getLocation())) {
+                water.revert();
+            }
+        }
 
-    @Override
-    public boolean isSneakingAbility() {
-        return false;
-    }
+        @Override
+        protected void onStop() {
+            if (water != null && !water.isReverted()) {
+                water.revert();
+            }
+        }
 
-    @Override
-    public Action getAbilityActivationAction() {
-        return Action.LEFT_CLICK_AIR;
+        @Override
+        public @NotNull Location getLocation() {
+            return currentLoc == null ? origin : currentLoc;
+        }
     }
 
-    @Override
-    public MagicElement getElement() {
-        return MagicElement.WATER;
-    }
+    private record Settings(double speed, double damage, double hitRadius, int maxTicks) {
 
-    @Override
-    public @NotNull Location getLocation() {
-        return currentLoc == null ? origin : currentLoc;
+        static Settings load(SpellConfig config) {
+            return new Settings(
+                    config.getDouble("speed", 0.8),
+                    config.getDouble("damage", 5.0),
+                    config.getDouble("hit-radius", 1.5),
+                    config.getInt("max-ticks", 200)
+            );
+        }
     }
 }
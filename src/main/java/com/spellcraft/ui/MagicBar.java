@@ -10,9 +10,9 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handles the display and automatic updating of Magic Bars for players.
@@ -28,7 +28,7 @@ public class MagicBar {
     /** Manager responsible for retrieving SpellCaster objects for players. */
     private final SpellCasterManager casterManager;
 
-    /** Map of player UUIDs to their current boss bar. */
+    /** Map of player UUIDs to their current boss bar; updated from the global and region threads. */
     private final Map<UUID, BossBar> magicBars;
 
     /** Task responsible for updating the bars each tick interval. */
@@ -46,7 +46,7 @@ public class MagicBar {
     public MagicBar(SpellCraftPlugin plugin, SpellCasterManager casterManager) {
         this.plugin = plugin;
         this.casterManager = casterManager;
-        this.magicBars = new HashMap<>();
+        this.magicBars = new ConcurrentHashMap<>();
     }
 
     /**
@@ -67,7 +67,7 @@ public class MagicBar {
                 SpellCaster caster = casterManager.getCaster(player);
                 showForPlayer(player, caster);
             }
-        }, 0L, updateInterval);
+        }, 0L, updateInterval, "MagicBar update");
 
         // Regenerate magic for all online players
         regenTask = ThreadUtil.runGlobalTimer(() -> {
@@ -76,7 +76,7 @@ public class MagicBar {
                 int bonus = plugin.getPerkManager().getBonusRegen(caster);
                 caster.regenerateMagic(regenAmount + bonus);
             }
-        }, 0L, regenInterval);
+        }, 0L, regenInterval, "MagicBar regen");
     }
 
     /**
@@ -130,8 +130,11 @@ public class MagicBar {
                     BossBar.Color.BLUE,
                     BossBar.Overlay.PROGRESS
             );
-            magicBars.put(player.getUniqueId(), bar);
-            SpellCraftPlugin.getAdventure().player(player).showBossBar(bar);
+            BossBar raced = magicBars.putIfAbsent(player.getUniqueId(), bar);
+
+            // The join refresh and the update timer may both get here first.
+            if (raced != null) bar = raced;
+            else SpellCraftPlugin.getAdventure().player(player).showBossBar(bar);
         }
 
         // Update progress
@@ -0,0 +1,218 @@
+package com.spellcraft.util;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Predicate;
+
+/**
+ * Finds the living entities inside a beam or cone, such as a stream of fire or a gust of wind,
+ * each exactly once and ordered by their distance along the beam.
+ * <p>
+ * A beam starts at an origin with a given radius and widens by a spread angle along its
+ * direction. It ends at its range or at the first solid block on its axis, found by a
+ * {@link VoxelRay}; an unloaded chunk ends it as well, without loading it. Entities are looked
+ * up once for the whole beam, through the current tick's {@link EntityGrid}.
+ * <p>
+ * The query fits the two-phase spell tick: {@link #capture} reads the blocks and entities on the
+ * thread that owns them, and {@link #compute()} tests the captured hit boxes without touching
+ * the world, so it may run on any thread. Spells with a single-phase tick call {@link #resolve}.
+ * <p>
+ * Keep one query per cast; it reuses its buffers and is not thread-safe.
+ */
+public final class BeamQuery {
+
+    /** Bisection steps used to locate the closest approach and the entry point of a hit box. */
+    private static final int SEARCH_STEPS = 24;
+
+    private final TargetSnapshot candidates = new TargetSnapshot();
+    private final MutableVector origin = new MutableVector();
+    private final MutableVector direction = new MutableVector();
+    private final BoundingBox area = new BoundingBox();
+    private final VoxelRay ray = new VoxelRay();
+
+    private double length;
+    private double radius;
+
+    /** Growth of the radius per block along the beam. */
+    private double slope;
+
+    private Block hitBlock;
+
+    /** Indices of the captured candidates inside the beam and where they enter it, closest first. */
+    private int[] hits = new int[8];
+    private double[] distances = new double[8];
+    private int hitCount;
+
+    /**
+     * Reads where a beam stops and which entities are near it. Must run on the thread owning the
+     * blocks around the beam.
+     *
+     * @param world     the world the beam is in
+     * @param origin    the start of the beam
+     * @param direction the unit direction of the beam
+     * @param range     the longest the beam can be, in blocks
+     * @param radius    the radius of the beam at its origin
+     * @param spread    the angle in degrees between the beam's axis and its edge, 0 for a cylinder
+     * @param targets   which entities the beam can hit
+     * @return the length of the beam, up to the first solid block or unloaded chunk
+     */
+    public double capture(@NotNull World world, @NotNull MutableVector origin, @NotNull MutableVector direction,
+                          double range, double radius, double spread, @NotNull Predicate<? super Entity> targets) {
+        this.origin.set(origin);
+        this.direction.set(direction);
+        this.radius = radius;
+        this.slope = spread <= 0 ? 0.0 : Math.tan(Math.toRadians(Math.min(spread, 89.0)));
+
+        hitCount = 0;
+        hitBlock = null;
+        length = 0.0;
+
+        if (range > 0) {
+            VoxelRay.Outcome outcome = ray.trace(world, origin, direction, range, VoxelRay.SOLID);
+            length = ray.getDistance();
+            if (outcome == VoxelRay.Outcome.HIT) hitBlock = ray.getBlock();
+        }
+
+        double reach = getRadius(length);
+        double endX = origin.getX() + direction.getX() * length;
+        double endY = origin.getY() + direction.getY() * length;
+        double endZ = origin.getZ() + direction.getZ() * length;
+
+        area.resize(
+                Math.min(origin.getX(), endX) - reach,
+                Math.min(origin.getY(), endY) - reach,
+                Math.min(origin.getZ(), endZ) - reach,
+                Math.max(origin.getX(), endX) + reach,
+                Math.max(origin.getY(), endY) + reach,
+                Math.max(origin.getZ(), endZ) + reach
+        );
+
+        candidates.capture(world, area, targets);
+        return length;
+    }
+
+    /**
+     * Tests the captured entities against the beam. Touches neither the world nor the entities.
+     */
+    public void compute() {
+        hitCount = 0;
+
+        if (hits.length < candidates.size()) {
+            hits = new int[candidates.size()];
+            distances = new double[candidates.size()];
+        }
+
+        for (int target = 0; target < candidates.size(); target++) {
+            double distance = enter(target);
+            if (distance < 0) continue;
+
+            // Insertion keeps the hits sorted; a beam rarely holds more than a handful.
+            int i = hitCount++;
+            while (i > 0 && distances[i - 1] > distance) {
+                hits[i] = hits[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+
+            hits[i] = target;
+            distances[i] = distance;
+        }
+    }
+
+    /**
+     * Runs {@link #capture} and {@link #compute()} in one go.
+     *
+     * @return this query
+     */
+    public BeamQuery resolve(@NotNull World world, @NotNull MutableVector origin, @NotNull MutableVector direction,
+                             double range, double radius, double spread, @NotNull Predicate<? super Entity> targets) {
+        capture(world, origin, direction, range, radius, spread, targets);
+        compute();
+        return this;
+    }
+
+    /** @return the length of the beam found by the last capture */
+    public double getLength() {
+        return length;
+    }
+
+    /** @return the solid block that ended the beam, or null if it reached its range or an unloaded chunk */
+    public Block getHitBlock() {
+        return hitBlock;
+    }
+
+    /**
+     * @param distance a distance along the beam
+     * @return the radius of the beam at that distance
+     */
+    public double getRadius(double distance) {
+        return radius + distance * slope;
+    }
+
+    /** @return the number of entities inside the beam */
+    public int size() {
+        return hitCount;
+    }
+
+    /**
+     * @param index the index of a hit, 0 being the closest to the origin
+     * @return the entity; only use it on the thread that captured the beam
+     */
+    public Entity get(int index) {
+        return candidates.get(hits[index]);
+    }
+
+    /**
+     * @param index the index of a hit
+     * @return the distance along the beam at which the entity's hit box enters it
+     */
+    public double getDistance(int index) {
+        return distances[index];
+    }
+
+    /**
+     * Finds where a captured hit box first touches the beam. The gap between the box and the
+     * beam's surface is convex along the axis, so its minimum and its first root can be found by
+     * bisection.
+     *
+     * @return the distance along the beam, or -1 if the box stays outside
+     */
+    private double enter(int target) {
+        if (gap(target, 0.0) <= 0) return 0.0;
+
+        // Closest approach: the gap falls until its minimum and rises after it.
+        double low = 0.0;
+        double high = length;
+        for (int i = 0; i < SEARCH_STEPS && high - low > 1.0E-3; i++) {
+            double mid = (low + high) / 2;
+            if (gap(target, mid) < gap(target, mid + 1.0E-4)) high = mid;
+            else low = mid;
+        }
+
+        double closest = (low + high) / 2;
+        if (gap(target, closest) > 0) return -1;
+
+        // Entry: the gap is positive before it and not after it.
+        low = 0.0;
+        high = closest;
+        for (int i = 0; i < SEARCH_STEPS && high - low > 1.0E-3; i++) {
+            double mid = (low + high) / 2;
+            if (gap(target, mid) > 0) low = mid;
+            else high = mid;
+        }
+
+        return high;
+    }
+
+    /** @return how far a captured hit box is from the beam's surface at a distance along the axis */
+    private double gap(int target, double distance) {
+        double x = origin.getX() + direction.getX() * distance;
+        double y = origin.getY() + direction.getY() * distance;
+        double z = origin.getZ() + direction.getZ() * distance;
+        return Math.sqrt(candidates.distanceSquaredToBox(target, x, y, z)) - getRadius(distance);
+    }
+}
@@ -0,0 +1,213 @@
+package com.spellcraft.util;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Block types read during one tick of one world (Paper) or region section (Folia), so spells
+ * tracing through the same blocks in a tick read each of them from the world only once.
+ * <p>
+ * The spell engine gives each of its tickers a memo and installs it for the ticking thread while
+ * its spells progress, emptying it at the start of every tick. Reads go through
+ * {@link #getType}, which answers from the installed memo and falls back to the world outside a
+ * tick or for other worlds. Blocks are keyed by their coordinates packed into a long.
+ * <p>
+ * Blocks changed through {@link TempBlock} are forgotten right away. Other changes within the
+ * same tick, such as by another plugin, are only seen from the next tick on. A memo is confined
+ * to the thread that owns its area.
+ */
+public final class BlockMemo {
+
+    /** Memo installed for the current thread by the spell engine. */
+    private static final ThreadLocal<BlockMemo> CURRENT = new ThreadLocal<>();
+
+    /** Marks an empty slot; only blocks at y = {@value #MIN_Y} pack to it, and those skip the memo. */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /** Heights that fit into the 10 bits of a packed y; blocks outside skip the memo. */
+    private static final int MIN_Y = -512;
+    private static final int MAX_Y = 511;
+
+    private static final LongAdder READS = new LongAdder();
+    private static final LongAdder HITS = new LongAdder();
+
+    private final World world;
+
+    /** Open-addressed table of packed coordinates and the types read for them. */
+    private long[] keys = new long[256];
+    private Material[] types = new Material[256];
+    private int count;
+
+    /**
+     * @param world the world of the memo
+     */
+    public BlockMemo(@NotNull World world) {
+        this.world = world;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Installs a memo for the calling thread and empties it. Call {@link #uninstall()} once the
+     * tick is done.
+     *
+     * @param memo the memo of the area the calling thread is about to tick
+     */
+    public static void install(@NotNull BlockMemo memo) {
+        memo.clear();
+        CURRENT.set(memo);
+    }
+
+    /**
+     * Removes the memo installed for the calling thread.
+     */
+    public static void uninstall() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Gets the type of a block, from the calling thread's memo where it can. The block's chunk
+     * must be loaded.
+     *
+     * @param world the world of the block
+     * @return the block's type
+     */
+    public static Material getType(@NotNull World world, int x, int y, int z) {
+        READS.increment();
+
+        BlockMemo memo = CURRENT.get();
+        if (memo == null || memo.world != world || y <= MIN_Y || y > MAX_Y) return world.getType(x, y, z);
+
+        return memo.lookup(x, y, z);
+    }
+
+    /**
+     * Forgets a block changed during the tick, so the next read sees its new type.
+     *
+     * @param block the changed block
+     */
+    public static void forget(@NotNull Block block) {
+        BlockMemo memo = CURRENT.get();
+        if (memo == null || memo.world != block.getWorld() || memo.count == 0) return;
+
+        int y = block.getY();
+        if (y > MIN_Y && y <= MAX_Y) memo.remove(pack(block.getX(), y, block.getZ()));
+    }
+
+    /** @return a snapshot of how often blocks were read and answered from a memo */
+    public static Stats getStats() {
+        return new Stats(READS.sum(), HITS.sum());
+    }
+
+    /**
+     * Memo counters.
+     *
+     * @param reads block types read through {@link #getType}
+     * @param hits  reads answered from a memo without asking the world
+     */
+    public record Stats(long reads, long hits) {
+    }
+
+    private Material lookup(int x, int y, int z) {
+        long key = pack(x, y, z);
+        int mask = keys.length - 1;
+
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                HITS.increment();
+                return types[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        Material type = world.getType(x, y, z);
+
+        // Keep the table at most half full.
+        if (count * 2 >= keys.length) {
+            rehash(keys.length * 2);
+            mask = keys.length - 1;
+            slot = hash(key) & mask;
+            while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        types[slot] = type;
+        count++;
+        return type;
+    }
+
+    /**
+     * Removes a key, moving later keys of the same run back so lookups never stop early.
+     */
+    private void remove(long key) {
+        int mask = keys.length - 1;
+
+        int slot = hash(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) return;
+            slot = (slot + 1) & mask;
+        }
+
+        int hole = slot;
+        for (slot = (slot + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int home = hash(keys[slot]) & mask;
+
+            // Move the entry into the hole unless its home lies cyclically in (hole, slot].
+            boolean between = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+            if (between) continue;
+
+            keys[hole] = keys[slot];
+            types[hole] = types[slot];
+            hole = slot;
+        }
+
+        keys[hole] = EMPTY;
+        types[hole] = null;
+        count--;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Material[] oldTypes = types;
+
+        keys = new long[capacity];
+        types = new Material[capacity];
+        Arrays.fill(keys, EMPTY);
+
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+
+            int slot = hash(oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+
+            keys[slot] = oldKeys[i];
+            types[slot] = oldTypes[i];
+        }
+    }
+
+    private void clear() {
+        if (count == 0) return;
+
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(types, null);
+        count = 0;
+    }
+
+    /**
+     * Packs block coordinates into a long: 27 bits each for x and z, 10 for y.
+     */
+    private static long pack(int x, int y, int z) {
+        return ((long) x & 0x7FFFFFF) | (((long) z & 0x7FFFFFF) << 27) | ((long) y << 54);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -16,7 +16,8 @@ public final class BlockSource {
 
     /**
      * Gets the first valid source {@link Block} in front of the {@link Player} within a given range.
-     * Checks blocks along the player's line of sight in 0.5 block increments.
+     * Walks every block along the player's line of sight once, see {@link VoxelRay}, stopping
+     * early at unloaded chunks.
      *
      * @param player the {@link Player} to check from
      * @param range the maximum range to search for a source block
@@ -24,26 +25,25 @@ public final class BlockSource {
      */
     public static Block getSourceBlock(Player player, double range) {
         Location eye = player.getEyeLocation();
-        for (double i = 0; i <= range; i += 0.5) {
-            Location loc = eye.clone().add(eye.getDirection().multiply(i));
-            Block block = loc.getBlock();
 
-            if (isValidSource(block)) {
-                return block;
-            }
+        MutableVector origin = new MutableVector().set(eye);
+        MutableVector direction = new MutableVector().setDirection(eye);
+
+        VoxelRay ray = new VoxelRay();
+        if (ray.trace(eye.getWorld(), origin, direction, range, BlockSource::isValidSource) != VoxelRay.Outcome.HIT) {
+            return null;
         }
-        return null;
+        return ray.getBlock();
     }
 
     /**
-     * Determines if a block is a valid source block for spells.
+     * Determines if a block type is a valid source for spells.
      * Valid types include WATER, LAVA, FIRE, and STONE.
      *
-     * @param block the {@link Block} to check
-     * @return true if the block is a valid source, false otherwise
+     * @param type the {@link Material} to check
+     * @return true if the type is a valid source, false otherwise
      */
-    private static boolean isValidSource(Block block) {
-        Material type = block.getType();
+    private static boolean isValidSource(Material type) {
         return type == Material.WATER
                 || type == Material.LAVA
                 || type == Material.FIRE
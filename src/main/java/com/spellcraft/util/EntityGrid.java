@@ -0,0 +1,246 @@
+package com.spellcraft.util;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Uniform grid of the living entities in one world (Paper) or region section (Folia), built at
+ * most once per tick and shared by every collision query of that tick.
+ * <p>
+ * The spell engine gives each of its tickers a grid and installs it for the ticking thread
+ * while its spells progress; the grid is only built when the first query arrives. Queries go
+ * through {@link #collect}, which answers from the installed grid when it covers the queried area
+ * and falls back to {@link World#getNearbyEntities(BoundingBox, Predicate)} otherwise, such as
+ * outside a tick or for areas crossing the grid's bounds. A tick therefore costs one pass over
+ * the entities, however many spells query them and however often.
+ * <p>
+ * Entities are bucketed by the column of {@value #CELL_SIZE} blocks their hit box centre is in,
+ * and queries widen their search by the largest hit box seen, so every overlapping entity is
+ * found exactly once. A grid is confined to the thread that owns its area.
+ */
+public final class EntityGrid {
+
+    /** Edge length of a grid column in blocks, as a shift. */
+    private static final int CELL_SHIFT = 3;
+
+    /** Edge length of a grid column in blocks. */
+    private static final int CELL_SIZE = 1 << CELL_SHIFT;
+
+    /** Doubles stored per entity: hit box min and max. */
+    private static final int STRIDE = 6;
+
+    /** Grid installed for the current thread by the spell engine. */
+    private static final ThreadLocal<EntityGrid> CURRENT = new ThreadLocal<>();
+
+    private static final LongAdder BUILDS = new LongAdder();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder FALLBACKS = new LongAdder();
+
+    private final World world;
+
+    /** Area covered by this grid, or null for the whole world. */
+    private final BoundingBox bounds;
+
+    private Entity[] entities = new Entity[64];
+    private double[] boxes = new double[64 * STRIDE];
+    private int[] cellX = new int[64];
+    private int[] cellZ = new int[64];
+    private int[] next = new int[64];
+    private int[] heads = new int[128];
+    private int count;
+
+    /** Largest half width of any entity's hit box, by which queries are widened. */
+    private double reach;
+
+    private boolean built;
+
+    /**
+     * @param world  the world of the grid
+     * @param bounds the area the grid covers, or null for the whole world
+     */
+    public EntityGrid(@NotNull World world, BoundingBox bounds) {
+        this.world = world;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Installs a grid for the calling thread and marks it for rebuilding on its next query.
+     * Call {@link #uninstall()} once the tick is done.
+     *
+     * @param grid the grid of the area the calling thread is about to tick
+     */
+    public static void install(@NotNull EntityGrid grid) {
+        grid.built = false;
+        CURRENT.set(grid);
+    }
+
+    /**
+     * Removes the grid installed for the calling thread.
+     */
+    public static void uninstall() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Adds every living entity whose hit box overlaps an area and that passes a filter to a list,
+     * using the calling thread's grid where it can.
+     *
+     * @param world  the world to query
+     * @param area   the area to query
+     * @param filter which entities to keep
+     * @param out    the list to add the entities to
+     */
+    public static void collect(@NotNull World world, @NotNull BoundingBox area,
+                               @NotNull Predicate<? super Entity> filter, @NotNull List<? super Entity> out) {
+        EntityGrid grid = CURRENT.get();
+
+        if (grid == null || grid.world != world || (grid.bounds != null && !contains(grid.bounds, area))) {
+            FALLBACKS.increment();
+            for (Entity entity : world.getNearbyEntities(area, filter)) {
+                if (entity instanceof LivingEntity) out.add(entity);
+            }
+            return;
+        }
+
+        HITS.increment();
+        grid.query(area, filter, out);
+    }
+
+    /** @return a snapshot of how often grids were built and queried */
+    public static Stats getStats() {
+        return new Stats(BUILDS.sum(), HITS.sum(), FALLBACKS.sum());
+    }
+
+    /**
+     * Grid counters.
+     *
+     * @param builds    grids built, at most one per ticker and tick
+     * @param queries   queries answered from a grid
+     * @param fallbacks queries answered by the world, outside a tick or a grid's bounds
+     */
+    public record Stats(long builds, long queries, long fallbacks) {
+    }
+
+    private void query(BoundingBox area, Predicate<? super Entity> filter, List<? super Entity> out) {
+        if (!built) build();
+        if (count == 0) return;
+
+        double minX = area.getMinX(), minY = area.getMinY(), minZ = area.getMinZ();
+        double maxX = area.getMaxX(), maxY = area.getMaxY(), maxZ = area.getMaxZ();
+
+        int fromX = (int) Math.floor(minX - reach) >> CELL_SHIFT;
+        int fromZ = (int) Math.floor(minZ - reach) >> CELL_SHIFT;
+        int toX = (int) Math.floor(maxX + reach) >> CELL_SHIFT;
+        int toZ = (int) Math.floor(maxZ + reach) >> CELL_SHIFT;
+
+        // Wide areas visit more columns than there are entities; walk the entities instead.
+        if ((long) (toX - fromX + 1) * (toZ - fromZ + 1) > count) {
+            for (int i = 0; i < count; i++) {
+                test(i, minX, minY, minZ, maxX, maxY, maxZ, filter, out);
+            }
+            return;
+        }
+
+        int mask = heads.length - 1;
+
+        for (int x = fromX; x <= toX; x++) {
+            for (int z = fromZ; z <= toZ; z++) {
+                for (int i = heads[hash(x, z) & mask]; i >= 0; i = next[i]) {
+                    if (cellX[i] != x || cellZ[i] != z) continue;
+                    test(i, minX, minY, minZ, maxX, maxY, maxZ, filter, out);
+                }
+            }
+        }
+    }
+
+    private void test(int i, double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                      Predicate<? super Entity> filter, List<? super Entity> out) {
+        int b = i * STRIDE;
+        if (boxes[b] > maxX || boxes[b + 3] < minX) return;
+        if (boxes[b + 1] > maxY || boxes[b + 4] < minY) return;
+        if (boxes[b + 2] > maxZ || boxes[b + 5] < minZ) return;
+
+        // Entities killed earlier in this tick are not returned by the world either.
+        Entity entity = entities[i];
+        if (entity.isDead() || !filter.test(entity)) return;
+
+        out.add(entity);
+    }
+
+    /**
+     * Reads the position of every living entity in the grid's area.
+     */
+    private void build() {
+        built = true;
+        BUILDS.increment();
+
+        Arrays.fill(entities, 0, count, null);
+        count = 0;
+        reach = 0.0;
+
+        Collection<? extends Entity> source = bounds == null
+                ? world.getLivingEntities()
+                : world.getNearbyEntities(bounds, entity -> entity instanceof LivingEntity);
+
+        int buckets = Integer.highestOneBit(Math.max(64, source.size() * 2) - 1) << 1;
+        if (heads.length != buckets) heads = new int[buckets];
+        Arrays.fill(heads, -1);
+
+        int mask = buckets - 1;
+
+        for (Entity entity : source) {
+            if (count == entities.length) grow();
+
+            BoundingBox box = entity.getBoundingBox();
+            int b = count * STRIDE;
+            boxes[b] = box.getMinX();
+            boxes[b + 1] = box.getMinY();
+            boxes[b + 2] = box.getMinZ();
+            boxes[b + 3] = box.getMaxX();
+            boxes[b + 4] = box.getMaxY();
+            boxes[b + 5] = box.getMaxZ();
+
+            reach = Math.max(reach, Math.max(box.getWidthX(), box.getWidthZ()) / 2);
+
+            int x = (int) Math.floor(box.getCenterX()) >> CELL_SHIFT;
+            int z = (int) Math.floor(box.getCenterZ()) >> CELL_SHIFT;
+            int bucket = hash(x, z) & mask;
+
+            entities[count] = entity;
+            cellX[count] = x;
+            cellZ[count] = z;
+            next[count] = heads[bucket];
+            heads[bucket] = count;
+            count++;
+        }
+    }
+
+    private void grow() {
+        int capacity = entities.length * 2;
+        entities = Arrays.copyOf(entities, capacity);
+        boxes = Arrays.copyOf(boxes, capacity * STRIDE);
+        cellX = Arrays.copyOf(cellX, capacity);
+        cellZ = Arrays.copyOf(cellZ, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+
+    private static int hash(int x, int z) {
+        int h = x * 0x9E3779B1 + z * 0x85EBCA77;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean contains(BoundingBox outer, BoundingBox inner) {
+        return inner.getMinX() >= outer.getMinX() && inner.getMaxX() <= outer.getMaxX()
+                && inner.getMinY() >= outer.getMinY() && inner.getMaxY() <= outer.getMaxY()
+                && inner.getMinZ() >= outer.getMinZ() && inner.getMaxZ() <= outer.getMaxZ();
+    }
+}
@@ -0,0 +1,168 @@
+package com.spellcraft.util;
+
+import com.spellcraft.SpellCraftPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+/**
+ * Runs SpellCraft's blocking background work, such as player data writes, on virtual threads.
+ * <p>
+ * Every task gets its own virtual thread, so a slow write never holds up unrelated ones, while a
+ * semaphore bounds how many run at the same time. Tasks submitted with a key run one after the
+ * other in submission order, so two writes of the same player never race.
+ * <p>
+ * {@link #shutdown(long)} waits for everything queued to finish; tasks submitted after that run
+ * directly on the calling thread.
+ */
+public final class IoExecutor implements Executor {
+
+    private final ExecutorService threads =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("SpellCraft-IO-", 0).factory());
+
+    private final Semaphore permits;
+
+    /** Last task queued for each key, removed once it completes. */
+    private final Map<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    /**
+     * @param maxConcurrent the maximum number of tasks running at the same time
+     */
+    public IoExecutor(int maxConcurrent) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    /**
+     * Runs a task on a virtual thread, with no ordering relative to other tasks.
+     *
+     * @param task the task
+     */
+    @Override
+    public void execute(@NotNull Runnable task) {
+        if (!closed) {
+            try {
+                threads.execute(() -> runPermitted(task));
+                return;
+            } catch (RejectedExecutionException ignored) {
+                // Shut down in the meantime; run it here instead.
+            }
+        }
+
+        runCatch(task);
+    }
+
+    /**
+     * Runs a task on a virtual thread once every task previously submitted with the same key
+     * has finished.
+     *
+     * @param key  the key to serialize on, such as a player's UUID
+     * @param task the task
+     * @return a future completed when the task has run; it never completes exceptionally
+     */
+    public CompletableFuture<Void> submit(@NotNull Object key, @NotNull Runnable task) {
+        if (closed) {
+            pending(key).join();
+            runCatch(task);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Void>[] queued = new CompletableFuture[1];
+
+        tails.compute(key, (k, tail) -> {
+            queued[0] = tail == null
+                    ? CompletableFuture.runAsync(() -> runPermitted(task), threads)
+                    : tail.handleAsync((result, error) -> {
+                        runPermitted(task);
+                        return null;
+                    }, threads);
+            return queued[0];
+        });
+
+        CompletableFuture<Void> next = queued[0];
+        next.whenComplete((result, error) -> tails.remove(key, next));
+        return next;
+    }
+
+    /**
+     * @param key a key tasks were submitted with
+     * @return a future completed once every task submitted with that key so far has run
+     */
+    public CompletableFuture<Void> pending(@NotNull Object key) {
+        CompletableFuture<Void> tail = tails.get(key);
+        return tail == null ? CompletableFuture.completedFuture(null) : tail.handle((result, error) -> null);
+    }
+
+    /** @return the number of keys with tasks still queued or running */
+    public int getQueuedKeys() {
+        return tails.size();
+    }
+
+    /**
+     * Stops accepting tasks and waits for everything already submitted to finish.
+     *
+     * @param timeoutMillis how long to wait at most
+     * @return the number of keys whose tasks did not finish in time, 0 if everything was written
+     */
+    public int shutdown(long timeoutMillis) {
+        closed = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        try {
+            // Keyed tasks are only handed to the executor once their predecessor completes.
+            while (!tails.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) throw new TimeoutException();
+
+                CompletableFuture.allOf(tails.values().toArray(CompletableFuture[]::new))
+                        .get(remaining, TimeUnit.NANOSECONDS);
+            }
+
+            threads.shutdown();
+            if (!threads.awaitTermination(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                throw new TimeoutException();
+            }
+            return 0;
+        } catch (TimeoutException e) {
+            // Reported to the caller through the return value.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {
+            // Tasks catch their own errors; a rejected hand-off has nothing left to wait for.
+        }
+
+        int pending = tails.size();
+        threads.shutdownNow();
+        return pending;
+    }
+
+    private void runPermitted(Runnable task) {
+        permits.acquireUninterruptibly();
+        try {
+            runCatch(task);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static void runCatch(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            SpellCraftPlugin.log.log(Level.WARNING, "Error in background I/O task", e);
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.spellcraft.util;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.util.Vector;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A mutable three-component vector backed by primitive doubles.
+ * <p>
+ * Every operation modifies this vector in place and returns it for chaining, so per-tick spell code
+ * can keep one instance per cast and never allocate. Unlike {@link Location}, it carries no world,
+ * yaw or pitch. Conversions write into caller-supplied {@link Location}s and {@link Vector}s.
+ * <p>
+ * Not thread-safe; keep instances confined to the thread ticking the spell that owns them.
+ */
+public final class MutableVector {
+
+    private double x;
+    private double y;
+    private double z;
+
+    /** Creates a zero vector. */
+    public MutableVector() {}
+
+    /**
+     * Creates a vector with the given components.
+     *
+     * @param x the x component
+     * @param y the y component
+     * @param z the z component
+     */
+    public MutableVector(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /** @return the x component */
+    public double getX() {
+        return x;
+    }
+
+    /** @return the y component */
+    public double getY() {
+        return y;
+    }
+
+    /** @return the z component */
+    public double getZ() {
+        return z;
+    }
+
+    /** @return the x coordinate of the block containing this position */
+    public int getBlockX() {
+        return FastMath.floor(x);
+    }
+
+    /** @return the y coordinate of the block containing this position */
+    public int getBlockY() {
+        return FastMath.floor(y);
+    }
+
+    /** @return the z coordinate of the block containing this position */
+    public int getBlockZ() {
+        return FastMath.floor(z);
+    }
+
+    /**
+     * Sets all components.
+     *
+     * @return this vector
+     */
+    public MutableVector set(double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        return this;
+    }
+
+    /**
+     * Copies the components of another vector.
+     *
+     * @return this vector
+     */
+    public MutableVector set(@NotNull MutableVector other) {
+        return set(other.x, other.y, other.z);
+    }
+
+    /**
+     * Copies the coordinates of a {@link Location}.
+     *
+     * @return this vector
+     */
+    public MutableVector set(@NotNull Location location) {
+        return set(location.getX(), location.getY(), location.getZ());
+    }
+
+    /**
+     * Copies the components of a Bukkit {@link Vector}.
+     *
+     * @return this vector
+     */
+    public MutableVector set(@NotNull Vector vector) {
+        return set(vector.getX(), vector.getY(), vector.getZ());
+    }
+
+    /**
+     * Sets this vector to the unit direction of a yaw and pitch, matching {@link Location#getDirection()}.
+     *
+     * @param yaw the yaw in degrees
+     * @param pitch the pitch in degrees
+     * @return this vector
+     */
+    public MutableVector setDirection(float yaw, float pitch) {
+        double xz = FastMath.cosDeg(pitch);
+        return set(-xz * FastMath.sinDeg(yaw), -FastMath.sinDeg(pitch), xz * FastMath.cosDeg(yaw));
+    }
+
+    /**
+     * Sets this vector to the unit direction of a {@link Location}'s yaw and pitch.
+     *
+     * @return this vector
+     */
+    public MutableVector setDirection(@NotNull Location location) {
+        return setDirection(location.getYaw(), location.getPitch());
+    }
+
+    /**
+     * Sets this vector to the eye position of an entity, reusing the given location as scratch.
+     *
+     * @param entity the entity
+     * @param scratch a location to read the entity's position into
+     * @return this vector
+     */
+    public MutableVector setEye(@NotNull LivingEntity entity, @NotNull Location scratch) {
+        entity.getLocation(scratch);
+        return set(scratch.getX(), scratch.getY() + entity.getEyeHeight(), scratch.getZ());
+    }
+
+    /**
+     * Sets this vector to the position of an entity, reusing the given location as scratch.
+     *
+     * @param entity the entity
+     * @param scratch a location to read the entity's position into
+     * @return this vector
+     */
+    public MutableVector setPosition(@NotNull Entity entity, @NotNull Location scratch) {
+        return set(entity.getLocation(scratch));
+    }
+
+    /**
+     * Adds the given components.
+     *
+     * @return this vector
+     */
+    public MutableVector add(double x, double y, double z) {
+        this.x += x;
+        this.y += y;
+        this.z += z;
+        return this;
+    }
+
+    /**
+     * Adds another vector.
+     *
+     * @return this vector
+     */
+    public MutableVector add(@NotNull MutableVector other) {
+        return add(other.x, other.y, other.z);
+    }
+
+    /**
+     * Adds another vector scaled by a factor, without modifying the other vector.
+     *
+     * @param other the vector to add
+     * @param scale the factor to scale it by
+     * @return this vector
+     */
+    public MutableVector add(@NotNull MutableVector other, double scale) {
+        return add(other.x * scale, other.y * scale, other.z * scale);
+    }
+
+    /**
+     * Subtracts the given components.
+     *
+     * @return this vector
+     */
+    public MutableVector subtract(double x, double y, double z) {
+        return add(-x, -y, -z);
+    }
+
+    /**
+     * Subtracts another vector.
+     *
+     * @return this vector
+     */
+    public MutableVector subtract(@NotNull MutableVector other) {
+        return add(-other.x, -other.y, -other.z);
+    }
+
+    /**
+     * Multiplies every component by a factor.
+     *
+     * @return this vector
+     */
+    public MutableVector multiply(double factor) {
+        x *= factor;
+        y *= factor;
+        z *= factor;
+        return this;
+    }
+
+    /**
+     * Scales this vector to length 1. A zero vector is left unchanged.
+     *
+     * @return this vector
+     */
+    public MutableVector normalize() {
+        double lengthSquared = lengthSquared();
+        if (lengthSquared == 0) return this;
+        return multiply(1.0 / Math.sqrt(lengthSquared));
+    }
+
+    /**
+     * Sets this vector to the unit direction from one position to another.
+     *
+     * @param from the start position
+     * @param to the target position
+     * @return this vector
+     */
+    public MutableVector setDirectionTo(@NotNull MutableVector from, @NotNull MutableVector to) {
+        return set(to.x - from.x, to.y - from.y, to.z - from.z).normalize();
+    }
+
+    /** @return the length of this vector */
+    public double length() {
+        return Math.sqrt(lengthSquared());
+    }
+
+    /** @return the squared length of this vector */
+    public double lengthSquared() {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * @param other another vector
+     * @return the dot product of both vectors
+     */
+    public double dot(@NotNull MutableVector other) {
+        return x * other.x + y * other.y + z * other.z;
+    }
+
+    /**
+     * @param other another position
+     * @return the squared distance between both positions
+     */
+    public double distanceSquared(@NotNull MutableVector other) {
+        return distanceSquared(other.x, other.y, other.z);
+    }
+
+    /**
+     * @param location a {@link Location}
+     * @return the squared distance between this position and the location
+     */
+    public double distanceSquared(@NotNull Location location) {
+        return distanceSquared(location.getX(), location.getY(), location.getZ());
+    }
+
+    /**
+     * @return the squared distance between this position and the given coordinates
+     */
+    public double distanceSquared(double x, double y, double z) {
+        double dx = this.x - x;
+        double dy = this.y - y;
+        double dz = this.z - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Writes this position into an existing {@link Location}, keeping its world, yaw and pitch.
+     *
+     * @param target the location to update
+     * @return the target location
+     */
+    public Location toLocation(@NotNull Location target) {
+        target.setX(x);
+        target.setY(y);
+        target.setZ(z);
+        return target;
+    }
+
+    /**
+     * @param world the world of the location
+     * @return a new {@link Location} at this position
+     */
+    public Location toLocation(World world) {
+        return new Location(world, x, y, z);
+    }
+
+    /**
+     * Writes this vector into an existing Bukkit {@link Vector}.
+     *
+     * @param target the vector to update
+     * @return the target vector
+     */
+    public Vector toVector(@NotNull Vector target) {
+        target.setX(x);
+        target.setY(y);
+        target.setZ(z);
+        return target;
+    }
+
+    /**
+     * Gets the block at this position without creating a {@link Location}.
+     *
+     * @param world the world to look in
+     * @return the {@link Block} containing this position
+     */
+    public Block getBlock(@NotNull World world) {
+        return world.getBlockAt(getBlockX(), getBlockY(), getBlockZ());
+    }
+
+    /** @return a new vector with the same components */
+    public MutableVector copy() {
+        return new MutableVector(x, y, z);
+    }
+
+    @Override
+    public String toString() {
+        return "MutableVector{" + x + ", " + y + ", " + z + "}";
+    }
+}
@@ -101,6 +101,9 @@ public enum ParticleEffect {
 	WATER_WAKE(Particle.WATER_WAKE),
 	WHITE_ASH(Particle.WHITE_ASH);
 
+	/** Share of requested particles spawned by the current thread, see {@link #setAmountScale(double)}. */
+	private static final ThreadLocal<double[]> AMOUNT_SCALE = ThreadLocal.withInitial(() -> new double[] {1.0});
+
 	private final Particle particle;
 	private final Class<?> dataClass;
 
@@ -114,6 +117,21 @@ public enum ParticleEffect {
 		this.dataClass = particle.getDataType();
 	}
 
+	/**
+	 * Scales the amount of every particle displayed by the current thread until reset to 1.
+	 * The spell engine uses it to thin out the effects of spells no player is close to.
+	 *
+	 * @param scale the share of particles to spawn, 0 to spawn none
+	 */
+	public static void setAmountScale(double scale) {
+		AMOUNT_SCALE.get()[0] = scale;
+	}
+
+	/** @return the share of particles the current thread spawns */
+	public static double getAmountScale() {
+		return AMOUNT_SCALE.get()[0];
+	}
+
 	/** @return the underlying {@link Particle} of this effect */
 	public Particle getParticle() {
 		return particle;
@@ -192,6 +210,10 @@ public enum ParticleEffect {
 	) {
 		if (loc == null || loc.getWorld() == null) return;
 
+		double scale = AMOUNT_SCALE.get()[0];
+		if (scale <= 0) return;
+		if (scale < 1 && amount > 0) amount = (int) Math.ceil(amount * scale);
+
 		if (data == null || dataClass == Void.class || !dataClass.isInstance(data)) {
 			loc.getWorld().spawnParticle(
 					particle,
@@ -0,0 +1,161 @@
+package com.spellcraft.util;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Moves a projectile with swept collision, so it hits thin walls and entities at any speed.
+ * <p>
+ * Each {@link #advance} call moves a position along a direction in fixed substeps of at most
+ * {@link #MAX_SUBSTEP} blocks; a slow projectile needs a single substep. Every substep traces the
+ * exact blocks its segment passes through with a {@link VoxelRay} and tests the segment against
+ * the bounding boxes of nearby living entities grown by the projectile's radius. Entities are
+ * looked up once per call, for the whole distance moved, through the current tick's
+ * {@link EntityGrid}.
+ * <p>
+ * Blocks are only read in loaded chunks: reaching an unloaded chunk ends the move with
+ * {@link Outcome#UNLOADED} instead of loading it.
+ * <p>
+ * Keep one stepper per projectile; it reuses its buffers and is not thread-safe.
+ */
+public final class ProjectileStepper {
+
+    /** Longest distance covered by a single substep, in blocks. */
+    public static final double MAX_SUBSTEP = 1.0;
+
+    /** Distance a stopped projectile is kept from the surface it hit. */
+    private static final double SURFACE_OFFSET = 1.0E-3;
+
+    /** Result of an {@link #advance} call. */
+    public enum Outcome {
+
+        /** The projectile moved the full distance without hitting anything. */
+        MOVED,
+
+        /** The projectile hit a solid block, see {@link #getHitBlock()}. */
+        BLOCK,
+
+        /** The projectile hit an entity, see {@link #getHitEntity()}. */
+        ENTITY,
+
+        /** The projectile reached a chunk that is not loaded and stopped just inside it. */
+        UNLOADED
+    }
+
+    /** Start of the current substep. */
+    private final MutableVector start = new MutableVector();
+    private final BoundingBox sweep = new BoundingBox();
+    private final List<Entity> candidates = new ArrayList<>();
+    private final VoxelRay ray = new VoxelRay();
+
+    private Block hitBlock;
+    private Entity hitEntity;
+
+    /**
+     * Moves a position along a direction, stopping at the first solid block or matching living entity.
+     *
+     * @param world     the world the projectile is in
+     * @param position  the projectile's position; updated to where it ends up
+     * @param direction the unit direction to move in
+     * @param distance  the distance to move, in blocks
+     * @param radius    the projectile's radius used for entity hits
+     * @param targets   which entities the projectile can hit
+     * @return what stopped the projectile, or {@link Outcome#MOVED}
+     */
+    public Outcome advance(@NotNull World world, @NotNull MutableVector position, @NotNull MutableVector direction,
+                           double distance, double radius, @NotNull Predicate<? super Entity> targets) {
+        hitBlock = null;
+        hitEntity = null;
+
+        if (distance <= 0) return Outcome.MOVED;
+
+        double endX = position.getX() + direction.getX() * distance;
+        double endY = position.getY() + direction.getY() * distance;
+        double endZ = position.getZ() + direction.getZ() * distance;
+
+        sweep.resize(
+                Math.min(position.getX(), endX) - radius,
+                Math.min(position.getY(), endY) - radius,
+                Math.min(position.getZ(), endZ) - radius,
+                Math.max(position.getX(), endX) + radius,
+                Math.max(position.getY(), endY) + radius,
+                Math.max(position.getZ(), endZ) + radius
+        );
+
+        candidates.clear();
+        EntityGrid.collect(world, sweep, targets, candidates);
+
+        int substeps = Math.max(1, (int) Math.ceil(distance / MAX_SUBSTEP));
+        double length = distance / substeps;
+
+        for (int i = 0; i < substeps; i++) {
+            start.set(position);
+
+            // Nearest entity along this substep, if any.
+            double entityAt = Double.MAX_VALUE;
+            for (Entity entity : candidates) {
+                double t = CollisionUtil.sweepBox(start, direction, length, entity.getBoundingBox(), radius);
+                if (t >= 0 && t < entityAt) {
+                    entityAt = t;
+                    hitEntity = entity;
+                }
+            }
+
+            Outcome blocked = traceBlocks(world, direction, Math.min(length, entityAt), position);
+            if (blocked != Outcome.MOVED) {
+                hitEntity = null;
+                return blocked;
+            }
+
+            if (hitEntity != null) {
+                position.set(start).add(direction, entityAt);
+                return Outcome.ENTITY;
+            }
+
+            position.set(start).add(direction, length);
+        }
+
+        return Outcome.MOVED;
+    }
+
+    /** @return the block hit by the last {@link #advance} call, or null */
+    public Block getHitBlock() {
+        return hitBlock;
+    }
+
+    /** @return the entity hit by the last {@link #advance} call, or null */
+    public Entity getHitEntity() {
+        return hitEntity;
+    }
+
+    /**
+     * Walks the blocks along a segment from {@link #start}, stopping at the first solid block or
+     * unloaded chunk and moving {@code position} up to it.
+     */
+    private Outcome traceBlocks(World world, MutableVector direction, double length, MutableVector position) {
+        switch (ray.trace(world, start, direction, length, VoxelRay.SOLID)) {
+
+            case UNLOADED -> {
+                position.set(start).add(direction, ray.getDistance() + SURFACE_OFFSET);
+                return Outcome.UNLOADED;
+            }
+
+            case HIT -> {
+                hitBlock = ray.getBlock();
+                position.set(start).add(direction, Math.max(0.0, ray.getDistance() - SURFACE_OFFSET));
+                return Outcome.BLOCK;
+            }
+
+            default -> {
+                return Outcome.MOVED;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.spellcraft.util;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static com.cjcrafter.foliascheduler.util.ServerVersions.isFolia;
+import static com.spellcraft.util.ThreadUtil.SECTION_SHIFT;
+
+/**
+ * Mutable state split into one shard per world (Paper) or region section (Folia), so each
+ * shard is only ever touched by the thread that owns its part of the world.
+ * <p>
+ * A Folia region section, sized by {@link ThreadUtil#SECTION_SHIFT}, always belongs to exactly
+ * one region, and so to one thread at a time, which lets shards be plain collections without
+ * locks as long as they are only read and written from code running for a location inside them. On Paper every shard belongs to the main thread.
+ * Only the lookup of the shard itself is concurrent.
+ * <p>
+ * {@link #values()} crosses shards and is only safe once their owners have stopped writing, for
+ * example on shutdown, or for approximate figures such as counts.
+ *
+ * @param <T> the type of a shard, usually a collection
+ */
+public final class RegionLocal<T> {
+
+    private final Map<ShardKey, T> shards = new ConcurrentHashMap<>();
+    private final Supplier<? extends T> factory;
+
+    /**
+     * @param factory creates an empty shard
+     */
+    public RegionLocal(@NotNull Supplier<? extends T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * @param location a location the calling thread owns
+     * @return the shard for that location, created if needed
+     */
+    public T get(@NotNull Location location) {
+        return get(location.getWorld(), location.getBlockX(), location.getBlockZ());
+    }
+
+    /**
+     * @param block a block the calling thread owns
+     * @return the shard for that block, created if needed
+     */
+    public T get(@NotNull Block block) {
+        return get(block.getWorld(), block.getX(), block.getZ());
+    }
+
+    /**
+     * @param block a block the calling thread owns
+     * @return the shard for that block, or null if it has none
+     */
+    public T getIfPresent(@NotNull Block block) {
+        return shards.get(ShardKey.of(block.getWorld(), block.getX(), block.getZ()));
+    }
+
+    private T get(World world, int blockX, int blockZ) {
+        return shards.computeIfAbsent(ShardKey.of(world, blockX, blockZ), key -> factory.get());
+    }
+
+    /**
+     * Drops the shard of a block if it is still the given one. Owners call this once their shard
+     * is empty, so shards of areas no longer in use do not pile up.
+     *
+     * @param block a block the calling thread owns
+     * @param shard the shard that block had
+     */
+    public void discard(@NotNull Block block, @NotNull T shard) {
+        shards.remove(ShardKey.of(block.getWorld(), block.getX(), block.getZ()), shard);
+    }
+
+    /**
+     * Drops the shard of a location if it is still the given one.
+     *
+     * @param location a location the calling thread owns
+     * @param shard    the shard that location had
+     * @see #discard(Block, Object)
+     */
+    public void discard(@NotNull Location location, @NotNull T shard) {
+        shards.remove(ShardKey.of(location.getWorld(), location.getBlockX(), location.getBlockZ()), shard);
+    }
+
+    /** @return a snapshot of all shards; see the class notes before reading them */
+    public List<T> values() {
+        return new ArrayList<>(shards.values());
+    }
+
+    /**
+     * Forgets every shard. Only meant for shutdown.
+     */
+    public void clear() {
+        shards.clear();
+    }
+
+    /**
+     * Identifies a shard: the world on Paper, the world and region section on Folia.
+     */
+    private record ShardKey(UUID world, int x, int z) {
+
+        static ShardKey of(World world, int blockX, int blockZ) {
+            UUID worldId = world == null ? null : world.getUID();
+
+            if (!isFolia()) return new ShardKey(worldId, 0, 0);
+
+            return new ShardKey(worldId, blockX >> SECTION_SHIFT, blockZ >> SECTION_SHIFT);
+        }
+    }
+}
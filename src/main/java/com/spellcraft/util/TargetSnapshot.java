@@ -0,0 +1,153 @@
+package com.spellcraft.util;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Read-only copy of the positions and hit boxes of the living entities in an area, taken once
+ * per tick from the current {@link EntityGrid}.
+ * <p>
+ * {@link #capture} must run on the thread that owns the area; afterwards the captured numbers can
+ * be read from any thread, such as the compute step of a two-phase spell, until the next capture.
+ * The entities themselves, returned by {@link #get(int)}, must only be used on the owning thread.
+ */
+public final class TargetSnapshot {
+
+    /** Doubles stored per entity: hit box min and max, position, eye height. */
+    private static final int STRIDE = 10;
+
+    private static final int MIN_X = 0;
+    private static final int MIN_Y = 1;
+    private static final int MIN_Z = 2;
+    private static final int MAX_X = 3;
+    private static final int MAX_Y = 4;
+    private static final int MAX_Z = 5;
+    private static final int X = 6;
+    private static final int Y = 7;
+    private static final int Z = 8;
+    private static final int EYE_Y = 9;
+
+    private final List<Entity> entities = new ArrayList<>();
+    private final List<Entity> found = new ArrayList<>();
+    private final Location scratch = new Location(null, 0, 0, 0);
+    private double[] data = new double[STRIDE * 8];
+
+    /**
+     * Replaces the snapshot with the living entities whose hit boxes overlap an area.
+     *
+     * @param world  the world to read
+     * @param area   the area to read
+     * @param filter which entities to keep
+     * @return this snapshot
+     */
+    public TargetSnapshot capture(@NotNull World world, @NotNull BoundingBox area,
+                                  @NotNull Predicate<? super Entity> filter) {
+        clear();
+        EntityGrid.collect(world, area, filter, found);
+
+        for (Entity entity : found) {
+            int i = entities.size() * STRIDE;
+            if (i == data.length) data = Arrays.copyOf(data, data.length * 2);
+
+            BoundingBox box = entity.getBoundingBox();
+            entity.getLocation(scratch);
+
+            data[i + MIN_X] = box.getMinX();
+            data[i + MIN_Y] = box.getMinY();
+            data[i + MIN_Z] = box.getMinZ();
+            data[i + MAX_X] = box.getMaxX();
+            data[i + MAX_Y] = box.getMaxY();
+            data[i + MAX_Z] = box.getMaxZ();
+            data[i + X] = scratch.getX();
+            data[i + Y] = scratch.getY();
+            data[i + Z] = scratch.getZ();
+            data[i + EYE_Y] = entity instanceof LivingEntity living
+                    ? scratch.getY() + living.getEyeHeight()
+                    : box.getCenterY();
+
+            entities.add(entity);
+        }
+
+        found.clear();
+        return this;
+    }
+
+    /**
+     * Empties the snapshot.
+     */
+    public void clear() {
+        entities.clear();
+    }
+
+    /** @return the number of captured entities */
+    public int size() {
+        return entities.size();
+    }
+
+    /**
+     * @param index the index of a captured entity
+     * @return the entity; only use it on the thread that captured the snapshot
+     */
+    public Entity get(int index) {
+        return entities.get(index);
+    }
+
+    /**
+     * @return the squared distance between a point and the position (feet) of a captured entity
+     */
+    public double distanceSquared(int index, double x, double y, double z) {
+        int i = index * STRIDE;
+        double dx = data[i + X] - x;
+        double dy = data[i + Y] - y;
+        double dz = data[i + Z] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Sets a vector to the eye position of a captured entity.
+     *
+     * @param index  the index of the entity
+     * @param target the vector to set
+     * @return the same vector
+     */
+    public MutableVector eye(int index, @NotNull MutableVector target) {
+        int i = index * STRIDE;
+        return target.set(data[i + X], data[i + EYE_Y], data[i + Z]);
+    }
+
+    /**
+     * @return the squared distance between a point and the hit box of a captured entity,
+     *         0 if the point is inside it
+     */
+    public double distanceSquaredToBox(int index, double x, double y, double z) {
+        int i = index * STRIDE;
+        double dx = Math.max(0.0, Math.max(data[i + MIN_X] - x, x - data[i + MAX_X]));
+        double dy = Math.max(0.0, Math.max(data[i + MIN_Y] - y, y - data[i + MAX_Y]));
+        double dz = Math.max(0.0, Math.max(data[i + MIN_Z] - z, z - data[i + MAX_Z]));
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Checks whether the hit box of a captured entity overlaps a cube around a point, the same
+     * test {@link World#getNearbyEntities(Location, double, double, double)} applies.
+     *
+     * @param index  the index of the entity
+     * @param radius half the edge length of the cube
+     * @return true if they overlap
+     */
+    public boolean overlaps(int index, double x, double y, double z, double radius) {
+        int i = index * STRIDE;
+        return data[i + MIN_X] <= x + radius && data[i + MAX_X] >= x - radius
+                && data[i + MIN_Y] <= y + radius && data[i + MAX_Y] >= y - radius
+                && data[i + MIN_Z] <= z + radius && data[i + MAX_Z] >= z - radius;
+    }
+}
@@ -0,0 +1,136 @@
+package com.spellcraft.util;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import static com.cjcrafter.foliascheduler.util.ServerVersions.isFolia;
+import static com.spellcraft.SpellCraftPlugin.scheduler;
+
+/**
+ * Keeps a homing spell locked onto one target, searching for a new one only every few ticks.
+ * <p>
+ * Between searches, {@link #update} only checks that the current target is still alive, in
+ * range and allowed, which costs the same however many entities are around. A search, run every
+ * {@code retargetInterval} ticks or as soon as the target is lost, finds the nearest target with
+ * {@link Targeting}, optionally only those in line of sight. The current target is kept unless
+ * the new one is nearer by more than the stickiness, so projectiles do not flip between two
+ * targets at about the same distance.
+ * <p>
+ * Keep one tracker per cast; it is not thread-safe.
+ */
+public final class TargetTracker {
+
+    private static final LongAdder KEPT = new LongAdder();
+    private static final LongAdder SEARCHES = new LongAdder();
+
+    private final int retargetInterval;
+    private final double stickiness;
+    private final boolean lineOfSight;
+
+    private final Location scratch = new Location(null, 0, 0, 0);
+
+    private Entity target;
+    private int untilSearch;
+
+    /**
+     * @param retargetInterval ticks between two searches while a target is held
+     * @param stickiness       how much nearer, in blocks, another entity must be to take over
+     * @param lineOfSight      whether targets must be visible from the tracking point
+     */
+    public TargetTracker(int retargetInterval, double stickiness, boolean lineOfSight) {
+        this.retargetInterval = Math.max(1, retargetInterval);
+        this.stickiness = Math.max(0.0, stickiness);
+        this.lineOfSight = lineOfSight;
+    }
+
+    /**
+     * Returns the target to follow this tick. Must run on the thread owning the area searched.
+     *
+     * @param world  the world to search
+     * @param centre the point targets are searched around, such as the caster
+     * @param eye    the point targets must be visible from, such as the projectile
+     * @param range  the largest distance of a target from the centre
+     * @param ticks  the ticks passed since the last call, see {@code ActiveSpell#getTickDelta()}
+     * @param filter which entities can be targeted
+     * @return the target, or null if there is none
+     */
+    public Entity update(@NotNull World world, @NotNull MutableVector centre, @NotNull MutableVector eye,
+                         double range, int ticks, @NotNull Predicate<? super Entity> filter) {
+        untilSearch -= ticks;
+
+        if (target != null && !isHeld(world, centre, range, filter)) {
+            target = null;
+        }
+
+        if (target != null && untilSearch > 0) {
+            KEPT.increment();
+            return target;
+        }
+
+        SEARCHES.increment();
+        untilSearch = retargetInterval;
+
+        Entity found = lineOfSight
+                ? Targeting.nearestVisible(world, centre, range, eye, filter)
+                : Targeting.nearest(world, centre, range, filter);
+
+        if (target != null && found != null && found != target) {
+            double current = Math.sqrt(distanceSquared(target, centre));
+            double challenger = Math.sqrt(distanceSquared(found, centre));
+
+            // Keep the current target unless it is hidden or clearly farther away.
+            if (challenger + stickiness >= current && (!lineOfSight || Targeting.canSee(world, eye, target))) {
+                return target;
+            }
+        }
+
+        target = found;
+        return target;
+    }
+
+    /** @return the current target, or null */
+    public Entity getTarget() {
+        return target;
+    }
+
+    /**
+     * Drops the current target, so the next update searches again.
+     */
+    public void clear() {
+        target = null;
+        untilSearch = 0;
+    }
+
+    /** @return a snapshot of how often trackers kept their target and how often they searched */
+    public static Stats getStats() {
+        return new Stats(KEPT.sum(), SEARCHES.sum());
+    }
+
+    /**
+     * Tracker counters.
+     *
+     * @param kept     updates that kept the target without a search
+     * @param searches updates that searched for a target
+     */
+    public record Stats(long kept, long searches) {
+    }
+
+    private boolean isHeld(World world, MutableVector centre, double range, Predicate<? super Entity> filter) {
+        return target.isValid()
+                // On Folia the target may have walked into a region this thread cannot read.
+                && (!isFolia() || scheduler.isOwnedByCurrentRegion(target))
+                && !target.isDead()
+                && target.getWorld() == world
+                && distanceSquared(target, centre) <= range * range
+                && filter.test(target);
+    }
+
+    private double distanceSquared(Entity entity, MutableVector centre) {
+        return centre.distanceSquared(entity.getLocation(scratch));
+    }
+}
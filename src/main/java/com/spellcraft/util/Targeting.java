@@ -0,0 +1,180 @@
+package com.spellcraft.util;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Target queries for spells: the nearest, the k nearest and the nearest inside a cone of the
+ * living entities around a point, optionally only those in line of sight.
+ * <p>
+ * Entities are looked up once per query through the current tick's {@link EntityGrid} and ranked
+ * by the squared distance of their position (feet) in a single pass, without sorting the whole
+ * result. Spells that keep following one target should use a {@link TargetTracker}, which only
+ * runs these queries every few ticks.
+ */
+public final class Targeting {
+
+    /** Private constructor to prevent instantiation. */
+    private Targeting() {}
+
+    /**
+     * Finds the living entity nearest to a point.
+     *
+     * @param world  the world to search
+     * @param centre the point to search around
+     * @param range  the largest distance from the point
+     * @param filter which entities can be targeted
+     * @return the nearest entity, or null if none is in range
+     */
+    public static Entity nearest(@NotNull World world, @NotNull MutableVector centre, double range,
+                                 @NotNull Predicate<? super Entity> filter) {
+        List<Entity> found = nearest(world, centre, range, 1, filter);
+        return found.isEmpty() ? null : found.getFirst();
+    }
+
+    /**
+     * Finds the living entities nearest to a point.
+     *
+     * @param world  the world to search
+     * @param centre the point to search around
+     * @param range  the largest distance from the point
+     * @param count  the most entities to return
+     * @param filter which entities can be targeted
+     * @return up to {@code count} entities, nearest first
+     */
+    public static List<Entity> nearest(@NotNull World world, @NotNull MutableVector centre, double range, int count,
+                                       @NotNull Predicate<? super Entity> filter) {
+        return rank(world, centre, range, count, filter, null, -1.0, null);
+    }
+
+    /**
+     * Finds the living entity nearest to a point that is also inside a cone starting there, such
+     * as the entity a projectile is aimed closest to.
+     *
+     * @param world     the world to search
+     * @param origin    the apex of the cone
+     * @param direction the unit direction of the cone's axis
+     * @param range     the largest distance from the apex
+     * @param angle     the angle in degrees between the axis and the cone's edge
+     * @param filter    which entities can be targeted
+     * @return the nearest entity inside the cone, or null if there is none
+     */
+    public static Entity nearestInCone(@NotNull World world, @NotNull MutableVector origin,
+                                       @NotNull MutableVector direction, double range, double angle,
+                                       @NotNull Predicate<? super Entity> filter) {
+        List<Entity> found = rank(world, origin, range, 1, filter, direction, Math.cos(Math.toRadians(angle)), null);
+        return found.isEmpty() ? null : found.getFirst();
+    }
+
+    /**
+     * Finds the living entity nearest to a point that can be seen from another point, checking
+     * line of sight for the nearest entities first until one is visible.
+     *
+     * @param world  the world to search
+     * @param centre the point to search around
+     * @param range  the largest distance from the point
+     * @param eye    the point the target must be visible from
+     * @param filter which entities can be targeted
+     * @return the nearest visible entity, or null if there is none
+     */
+    public static Entity nearestVisible(@NotNull World world, @NotNull MutableVector centre, double range,
+                                        @NotNull MutableVector eye, @NotNull Predicate<? super Entity> filter) {
+        List<Entity> found = rank(world, centre, range, 1, filter, null, -1.0, eye);
+        return found.isEmpty() ? null : found.getFirst();
+    }
+
+    /**
+     * Checks whether no solid block lies between a point and an entity's eyes (its centre for
+     * entities without eyes). A target in an unloaded chunk counts as hidden.
+     *
+     * @param world  the world of both
+     * @param eye    the point to look from
+     * @param target the entity to look at
+     * @return true if the entity can be seen
+     */
+    public static boolean canSee(@NotNull World world, @NotNull MutableVector eye, @NotNull Entity target) {
+        MutableVector point = new MutableVector();
+
+        if (target instanceof LivingEntity living) {
+            point.setEye(living, new Location(null, 0, 0, 0));
+        } else {
+            BoundingBox box = target.getBoundingBox();
+            point.set(box.getCenterX(), box.getCenterY(), box.getCenterZ());
+        }
+
+        MutableVector direction = point.subtract(eye);
+        double distance = direction.length();
+        if (distance == 0) return true;
+
+        direction.normalize();
+        return new VoxelRay().trace(world, eye, direction, distance, VoxelRay.SOLID) == VoxelRay.Outcome.MISSED;
+    }
+
+    /**
+     * Collects the entities around a point, keeps those in range and, if given, inside a cone,
+     * and returns the nearest ones in order. With an eye, only visible entities are returned,
+     * checked nearest first.
+     */
+    private static List<Entity> rank(World world, MutableVector centre, double range, int count,
+                                     Predicate<? super Entity> filter, MutableVector axis, double minCos,
+                                     MutableVector eye) {
+        List<Entity> candidates = new ArrayList<>();
+        EntityGrid.collect(world, new BoundingBox(
+                centre.getX() - range, centre.getY() - range, centre.getZ() - range,
+                centre.getX() + range, centre.getY() + range, centre.getZ() + range
+        ), filter, candidates);
+
+        if (count <= 0 || candidates.isEmpty()) return List.of();
+
+        Location scratch = new Location(null, 0, 0, 0);
+        double rangeSquared = range * range;
+
+        // Distances of the candidates still in the running; beyond range or outside the cone is NaN.
+        double[] distances = new double[candidates.size()];
+
+        for (int i = 0; i < candidates.size(); i++) {
+            candidates.get(i).getLocation(scratch);
+
+            double dx = scratch.getX() - centre.getX();
+            double dy = scratch.getY() - centre.getY();
+            double dz = scratch.getZ() - centre.getZ();
+            double distanceSquared = dx * dx + dy * dy + dz * dz;
+
+            boolean inside = distanceSquared <= rangeSquared;
+
+            if (inside && axis != null && distanceSquared > 0) {
+                double along = dx * axis.getX() + dy * axis.getY() + dz * axis.getZ();
+                inside = along >= minCos * Math.sqrt(distanceSquared);
+            }
+
+            distances[i] = inside ? distanceSquared : Double.NaN;
+        }
+
+        List<Entity> result = new ArrayList<>(Math.min(count, candidates.size()));
+
+        // Repeated selection: counts are small, and with an eye most searches end at the first pick.
+        while (result.size() < count) {
+            int nearest = -1;
+            for (int i = 0; i < distances.length; i++) {
+                if (!Double.isNaN(distances[i]) && (nearest < 0 || distances[i] < distances[nearest])) nearest = i;
+            }
+
+            if (nearest < 0) break;
+
+            distances[nearest] = Double.NaN;
+
+            Entity entity = candidates.get(nearest);
+            if (eye == null || canSee(world, eye, entity)) result.add(entity);
+        }
+
+        return result;
+    }
+}
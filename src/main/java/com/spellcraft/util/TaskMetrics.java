@@ -0,0 +1,86 @@
+package com.spellcraft.util;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime counters of a scheduled task, or of every task sharing a label.
+ * <p>
+ * Updated by {@link ThreadUtil} around each run; all methods are thread-safe.
+ */
+public final class TaskMetrics {
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAdder overruns = new LongAdder();
+    private final LongAdder exceptions = new LongAdder();
+
+    /** Time of the last recorded run, from {@link System#nanoTime()}. */
+    private volatile long lastRunNanos;
+
+    /**
+     * Records one run.
+     *
+     * @param startNanos when the run started, from {@link System#nanoTime()}
+     * @param elapsed    how long it took, in nanoseconds
+     * @param overrun    whether it took longer than the overrun threshold
+     * @param failed     whether it threw
+     */
+    void record(long startNanos, long elapsed, boolean overrun, boolean failed) {
+        runs.increment();
+        totalNanos.add(elapsed);
+        maxNanos.accumulate(elapsed);
+        if (overrun) overruns.increment();
+        if (failed) exceptions.increment();
+        lastRunNanos = startNanos;
+    }
+
+    /** @return the time of the last run from {@link System#nanoTime()}, or 0 if it never ran */
+    public long getLastRunNanos() {
+        return lastRunNanos;
+    }
+
+    /** @return a snapshot of the counters */
+    public Snapshot snapshot() {
+        return new Snapshot(runs.sum(), totalNanos.sum(), maxNanos.get(), overruns.sum(), exceptions.sum());
+    }
+
+    /**
+     * Resets all counters.
+     */
+    public void reset() {
+        runs.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        overruns.reset();
+        exceptions.reset();
+    }
+
+    /**
+     * Counters at one point in time.
+     *
+     * @param runs       completed runs
+     * @param totalNanos time spent in all runs
+     * @param maxNanos   longest single run
+     * @param overruns   runs longer than the overrun threshold
+     * @param exceptions runs that threw
+     */
+    public record Snapshot(long runs, long totalNanos, long maxNanos, long overruns, long exceptions) {
+
+        /** @return the time spent in all runs, in milliseconds */
+        public double totalMillis() {
+            return totalNanos / 1_000_000.0;
+        }
+
+        /** @return the average run time in milliseconds, 0 if it never ran */
+        public double avgMillis() {
+            return runs == 0 ? 0.0 : totalNanos / (double) runs / 1_000_000.0;
+        }
+
+        /** @return the longest run in milliseconds */
+        public double maxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+    }
+}
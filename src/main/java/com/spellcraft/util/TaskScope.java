@@ -0,0 +1,184 @@
+package com.spellcraft.util;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Group of scheduled tasks owned by one spell cast or caster session, cancelled together when
+ * the owner goes away.
+ * <p>
+ * Tasks started through a scope, or handed to {@link #add(ThreadUtil.ThreadTask)}, are cancelled
+ * by {@link #close()}; tasks added after that are cancelled right away. Scopes nest: a
+ * {@link #child()} is closed with its parent, so closing a caster's session scope also cancels
+ * the tasks of that caster's spells. All methods are thread-safe.
+ */
+public final class TaskScope {
+
+    /** Tracked entries after which finished tasks are pruned before adding more. */
+    private static final int PRUNE_THRESHOLD = 16;
+
+    private final TaskScope parent;
+
+    /** {@link ThreadUtil.ThreadTask}s, {@link TimerWheel.Timeout}s and child scopes; guarded by {@code this}. */
+    private final List<Object> entries = new ArrayList<>();
+
+    private int pruneAt = PRUNE_THRESHOLD;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new top-level scope.
+     */
+    public TaskScope() {
+        this(null);
+    }
+
+    private TaskScope(TaskScope parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Creates a scope that is closed together with this one. The child can still be closed on
+     * its own, which removes it from this scope.
+     *
+     * @return the new scope, already closed if this scope is
+     */
+    public TaskScope child() {
+        TaskScope child = new TaskScope(this);
+        track(child);
+        return child;
+    }
+
+    /**
+     * Ties a task to this scope.
+     *
+     * @param task the task, may be null
+     * @return the same task
+     */
+    public ThreadUtil.ThreadTask add(ThreadUtil.ThreadTask task) {
+        if (task != null) track(task);
+        return task;
+    }
+
+    /**
+     * Ties a timer wheel callback to this scope.
+     *
+     * @param timeout the callback handle, may be null
+     * @return the same handle
+     */
+    public TimerWheel.Timeout add(TimerWheel.Timeout timeout) {
+        if (timeout != null) track(timeout);
+        return timeout;
+    }
+
+    /**
+     * Schedules a repeating task for a location, cancelled with this scope.
+     *
+     * @see ThreadUtil#ensureLocationTimer(Location, Runnable, long, long, String)
+     */
+    public ThreadUtil.ThreadTask ensureLocationTimer(@NotNull Location location, @NotNull Runnable runnable,
+                                                     long delay, long repeat, String label) {
+        return add(ThreadUtil.ensureLocationTimer(location, runnable, delay, repeat, label));
+    }
+
+    /**
+     * Schedules a repeating task for an entity, cancelled with this scope.
+     *
+     * @see ThreadUtil#ensureEntityTimer(Entity, Runnable, long, long, String)
+     */
+    public ThreadUtil.ThreadTask ensureEntityTimer(@NotNull Entity entity, @NotNull Runnable runnable,
+                                                   long delay, long repeat, String label) {
+        return add(ThreadUtil.ensureEntityTimer(entity, runnable, delay, repeat, label));
+    }
+
+    /**
+     * Runs a repeating global task, cancelled with this scope.
+     *
+     * @see ThreadUtil#runGlobalTimer(Runnable, long, long, String)
+     */
+    public ThreadUtil.ThreadTask runGlobalTimer(@NotNull Runnable runnable, long delay, long repeat, String label) {
+        return add(ThreadUtil.runGlobalTimer(runnable, delay, repeat, label));
+    }
+
+    /**
+     * Runs a callback for a location after a delay, cancelled with this scope.
+     *
+     * @see ThreadUtil#scheduleLater(Location, Runnable, long)
+     */
+    public TimerWheel.Timeout scheduleLater(@NotNull Location location, @NotNull Runnable runnable, long delay) {
+        return add(ThreadUtil.scheduleLater(location, runnable, delay));
+    }
+
+    /**
+     * Runs a callback on the global thread after a delay, cancelled with this scope.
+     *
+     * @see ThreadUtil#scheduleGlobalLater(Runnable, long)
+     */
+    public TimerWheel.Timeout scheduleGlobalLater(@NotNull Runnable runnable, long delay) {
+        return add(ThreadUtil.scheduleGlobalLater(runnable, delay));
+    }
+
+    /**
+     * Cancels every task in this scope and closes its children. Does nothing if already closed.
+     */
+    public void close() {
+        List<Object> cancelled;
+
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            cancelled = new ArrayList<>(entries);
+            entries.clear();
+        }
+
+        cancelled.forEach(TaskScope::cancel);
+
+        if (parent != null) parent.untrack(this);
+    }
+
+    /** @return true if this scope, or one of its parents, has been closed */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** @return the number of tasks and child scopes that are still active */
+    public synchronized int size() {
+        entries.removeIf(TaskScope::isFinished);
+        return entries.size();
+    }
+
+    private void track(Object entry) {
+        synchronized (this) {
+            if (!closed) {
+                if (entries.size() >= pruneAt) {
+                    entries.removeIf(TaskScope::isFinished);
+                    pruneAt = Math.max(PRUNE_THRESHOLD, entries.size() * 2);
+                }
+                entries.add(entry);
+                return;
+            }
+        }
+
+        cancel(entry);
+    }
+
+    private synchronized void untrack(TaskScope child) {
+        entries.remove(child);
+    }
+
+    private static void cancel(Object entry) {
+        if (entry instanceof ThreadUtil.ThreadTask task) task.cancel();
+        else if (entry instanceof TimerWheel.Timeout timeout) timeout.cancel();
+        else if (entry instanceof TaskScope scope) scope.close();
+    }
+
+    private static boolean isFinished(Object entry) {
+        if (entry instanceof ThreadUtil.ThreadTask task) return task.isDone() || task.isCancelled();
+        if (entry instanceof TimerWheel.Timeout timeout) return timeout.isExpired() || timeout.isCancelled();
+        if (entry instanceof TaskScope scope) return scope.isClosed();
+        return true;
+    }
+}
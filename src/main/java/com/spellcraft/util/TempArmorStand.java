@@ -11,14 +11,18 @@ import com.spellcraft.SpellCraftPlugin;
 
 /**
  * Represents a temporary {@link ArmorStand} in the world that can be spawned
- * invisibly and removed automatically. Tracks all instances for global management.
+ * invisibly and removed automatically. Tracks all instances for global management, per world
+ * (Paper) or region section (Folia) of their spawn location; see {@link RegionLocal}.
  */
 public class TempArmorStand {
 
-    private static final Set<TempArmorStand> INSTANCES = new HashSet<>();
+    private static final RegionLocal<Set<TempArmorStand>> INSTANCES = new RegionLocal<>(HashSet::new);
 
     private final ArmorStand stand;
 
+    /** The shard of {@link #INSTANCES} this armor stand is tracked in. */
+    private final Set<TempArmorStand> shard;
+
     /**
      * Creates a new invisible, marker, invulnerable, and gravity-free armor stand
      * at the specified location and registers it as a temporary armor stand.
@@ -37,7 +41,8 @@ public class TempArmorStand {
             );
         });
 
-        INSTANCES.add(this);
+        shard = INSTANCES.get(loc);
+        shard.add(this);
     }
 
     /** @return the underlying {@link ArmorStand} entity */
@@ -50,24 +55,34 @@ public class TempArmorStand {
      */
     public void remove() {
         stand.remove();
-        INSTANCES.remove(this);
+        shard.remove(this);
     }
 
     /**
      * Removes all currently tracked temporary armor stands from the world
-     * and clears the internal registry.
+     * and clears the internal registry. Only meant for shutdown.
      */
     public static void removeAll() {
-        for (TempArmorStand tas : new HashSet<>(INSTANCES)) {
-            tas.stand.remove();
+        for (Set<TempArmorStand> shard : INSTANCES.values()) {
+            for (TempArmorStand tas : shard) {
+                tas.stand.remove();
+            }
+            shard.clear();
         }
         INSTANCES.clear();
     }
 
     /**
+     * Collects the armor stands of every region, so it is only safe once regions stop
+     * ticking, such as on shutdown.
+     *
      * @return an unmodifiable set of all currently tracked temporary armor stands
      */
     public static Set<TempArmorStand> getAll() {
-        return Set.copyOf(INSTANCES);
+        Set<TempArmorStand> all = new HashSet<>();
+        for (Set<TempArmorStand> shard : INSTANCES.values()) {
+            all.addAll(shard);
+        }
+        return Set.copyOf(all);
     }
 }
@@ -10,12 +10,19 @@ import java.util.*;
 /**
  * Represents a temporary block in the world that can be changed and later reverted
  * to its original state. Multiple temporary changes to the same block are tracked in a stack.
+ * <p>
+ * Temporary blocks are tracked per world (Paper) or region section (Folia), see {@link RegionLocal},
+ * so they must be created and reverted on the thread that owns their block.
  */
 public class TempBlock {
 
-    private static final Map<Block, Deque<TempBlock>> INSTANCES = new HashMap<>();
+    private static final RegionLocal<Map<Block, Deque<TempBlock>>> INSTANCES = new RegionLocal<>(HashMap::new);
 
     private final Block block;
+
+    /** The shard of {@link #INSTANCES} this block is tracked in. */
+    private final Map<Block, Deque<TempBlock>> shard;
+
     private final BlockState originalState;
     private BlockData newData;
     private boolean reverted;
@@ -40,12 +47,14 @@ public class TempBlock {
         this.block = block;
         this.newData = data;
         this.reverted = false;
+        this.shard = INSTANCES.get(block);
 
-        Deque<TempBlock> stack = INSTANCES.computeIfAbsent(block, b -> new ArrayDeque<>());
+        Deque<TempBlock> stack = shard.computeIfAbsent(block, b -> new ArrayDeque<>());
         this.originalState = stack.isEmpty() ? block.getState() : stack.peek().originalState;
         stack.push(this);
 
         block.setBlockData(data, false);
+        BlockMemo.forget(block);
     }
 
     /**
@@ -56,17 +65,20 @@ public class TempBlock {
         if (reverted) return;
 
         reverted = true;
-        Deque<TempBlock> stack = INSTANCES.get(block);
+        Deque<TempBlock> stack = shard.get(block);
         if (stack == null) return;
 
         stack.remove(this);
 
         if (stack.isEmpty()) {
             originalState.update(true, false);
-            INSTANCES.remove(block);
+            shard.remove(block);
+            if (shard.isEmpty()) INSTANCES.discard(block, shard);
         } else {
             block.setBlockData(stack.peek().newData, false);
         }
+
+        BlockMemo.forget(block);
     }
 
     /** @return true if this temporary block has already been reverted */
@@ -91,7 +103,8 @@ public class TempBlock {
      * @return true if this block has any active temporary changes
      */
     public static boolean isTempBlock(Block block) {
-        return INSTANCES.containsKey(block);
+        Map<Block, Deque<TempBlock>> shard = INSTANCES.getIfPresent(block);
+        return shard != null && shard.containsKey(block);
     }
 
     /**
@@ -101,19 +114,57 @@ public class TempBlock {
      * @return the top {@link TempBlock} or null if none exist
      */
     public static TempBlock getTop(Block block) {
-        Deque<TempBlock> stack = INSTANCES.get(block);
+        Map<Block, Deque<TempBlock>> shard = INSTANCES.getIfPresent(block);
+        Deque<TempBlock> stack = shard == null ? null : shard.get(block);
         return stack == null ? null : stack.peek();
     }
 
     /**
-     * Reverts all temporary blocks currently tracked, restoring them to their original states.
+     * Reverts up to a given number of tracked blocks, with every change made to them,
+     * restoring them to their original states. Only meant for shutdown, as it reverts
+     * blocks of every region on the calling thread.
+     *
+     * @param limit the maximum number of blocks to revert
+     * @return the number of blocks reverted
      */
-    public static void revertAll() {
-        for (Deque<TempBlock> stack : new ArrayList<>(INSTANCES.values())) {
+    public static int revertAll(int limit) {
+        List<Deque<TempBlock>> batch = new ArrayList<>();
+        for (Map<Block, Deque<TempBlock>> shard : INSTANCES.values()) {
+            for (Deque<TempBlock> stack : shard.values()) {
+                if (batch.size() >= limit) break;
+                batch.add(stack);
+            }
+        }
+
+        for (Deque<TempBlock> stack : batch) {
             for (TempBlock tb : new ArrayList<>(stack)) {
                 tb.revert();
             }
         }
+        return batch.size();
+    }
+
+    /** @return the number of blocks with temporary changes, approximate while regions are ticking */
+    public static int count() {
+        int count = 0;
+        for (Map<Block, Deque<TempBlock>> shard : INSTANCES.values()) {
+            count += shard.size();
+        }
+        return count;
+    }
+
+    /**
+     * Reverts all temporary blocks currently tracked, restoring them to their original states.
+     * Only meant for shutdown, see {@link #revertAll(int)}.
+     */
+    public static void revertAll() {
+        for (Map<Block, Deque<TempBlock>> shard : INSTANCES.values()) {
+            for (Deque<TempBlock> stack : new ArrayList<>(shard.values())) {
+                for (TempBlock tb : new ArrayList<>(stack)) {
+                    tb.revert();
+                }
+            }
+        }
         INSTANCES.clear();
     }
 }
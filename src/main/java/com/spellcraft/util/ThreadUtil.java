@@ -5,17 +5,25 @@ import com.cjcrafter.foliascheduler.folia.FoliaTask;
 import com.spellcraft.SpellCraftPlugin;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 
@@ -28,6 +36,20 @@ import static com.spellcraft.SpellCraftPlugin.scheduler;
  * <p>
  * Supports tasks tied to entities, regions, global execution, or asynchronous execution.
  * Automatically handles threading, scheduling, and shutdown scenarios.
+ * <p>
+ * Every scheduled task is timed: its {@link TaskMetrics} count the runs, run time, overruns and
+ * exceptions, both per task and per label, so the tasks that take up the tick can be found with
+ * {@link #getLabelMetrics()}. Finished and cancelled tasks are purged from the registry
+ * automatically.
+ * <p>
+ * Short delayed callbacks that are scheduled in bulk, such as block reverts, should use
+ * {@link #scheduleLater(Location, Runnable, long)} instead of the {@code ...Later} methods: they
+ * are kept in a {@link TimerWheel} per world (per region section on Folia) that a single timer
+ * drains, and are not listed in the task registry.
+ * <p>
+ * {@link #ensureLocation} and {@link #ensureEntity} called from another thread do not schedule a
+ * task of their own either: the runnable is appended to a lock-free hand-off queue, one per region
+ * section on Folia and one for the server on Paper, that the same timer drains every tick.
  */
 public class ThreadUtil {
 
@@ -37,8 +59,54 @@ public class ThreadUtil {
     /** Counter for generating unique task IDs. */
     private static final AtomicLong TASK_ID_COUNTER = new AtomicLong();
 
-    /** Map of task IDs to weak references of running tasks. */
-    private static final Map<Long, WeakReference<ThreadTask>> TASKS = new ConcurrentHashMap<>();
+    /** Map of task IDs to registered tasks; finished and cancelled tasks are purged. */
+    private static final Map<Long, ThreadTask> TASKS = new ConcurrentHashMap<>();
+
+    /** Metrics shared by all tasks with the same label. */
+    private static final Map<String, TaskMetrics> LABEL_METRICS = new ConcurrentHashMap<>();
+
+    /** Label the metrics of tasks scheduled without one are grouped under. */
+    public static final String UNLABELED = "unlabeled";
+
+    /** Labels beyond this count share the metrics of {@link #OTHER_LABELS}. */
+    private static final int MAX_LABELS = 256;
+
+    /** Label the metrics of labels beyond {@link #MAX_LABELS} are grouped under. */
+    private static final String OTHER_LABELS = "other";
+
+    /** Registrations between two purges of the task registry. */
+    private static final int PURGE_INTERVAL = 64;
+
+    /** Time after which the metrics of a label without live tasks are dropped. */
+    private static final long LABEL_EXPIRY_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    /** Runs longer than this count as overruns. */
+    private static volatile long overrunNanos = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * Size of a Folia region section in blocks, as a shift: 8 (16 chunks) by default, or as set by
+     * the server's {@code threaded-regions.grid-exponent}. Every section belongs to exactly one
+     * region, so state split by section, such as a {@link RegionLocal}, is only ever touched by
+     * one thread at a time. Read from Folia once; if it cannot be read, the default is assumed and
+     * the server must keep the default grid exponent.
+     */
+    public static final int SECTION_SHIFT = readSectionShift();
+
+    /** Timer wheels and hand-off queues by world (Paper) or world and region section (Folia). */
+    private static final Map<RegionKey, RegionTicker> REGIONS = new ConcurrentHashMap<>();
+
+    /** Key of the ticker run on the global thread, which also takes all hand-offs on Paper. */
+    private static final RegionKey GLOBAL_REGION = new RegionKey(null, 0, 0);
+
+    /** Ticks a region ticker keeps running with nothing to do before it stops. */
+    private static final int IDLE_TICKS = 100;
+
+    /** Most hand-offs a region ticker runs per tick; the rest wait for the next tick. */
+    private static volatile int handoffLimit = 1000;
+
+    private static final LongAdder HANDOFFS = new LongAdder();
+    private static final LongAdder HANDOFF_LIMITED_TICKS = new LongAdder();
+    private static final LongAccumulator HANDOFF_PEAK_DEPTH = new LongAccumulator(Math::max, 0L);
 
     /**
      * Represents a registered task with unique ID, optional label, and underlying handle
@@ -48,11 +116,13 @@ public class ThreadUtil {
         private final long id;
         private final String label;
         private final Object handle;
+        private final TimedRunnable runnable;
 
-        private ThreadTask(long id, String label, Object handle) {
-            this.id = id;
-            this.label = label;
+        private ThreadTask(TimedRunnable runnable, Object handle) {
+            this.id = runnable.id;
+            this.label = runnable.label;
             this.handle = handle;
+            this.runnable = runnable;
         }
 
         /** @return the unique ID of this task */
@@ -70,6 +140,16 @@ public class ThreadUtil {
             return handle;
         }
 
+        /** @return the runtime metrics of this task */
+        public TaskMetrics getMetrics() {
+            return runnable.metrics;
+        }
+
+        /** @return true if this is a one-shot task that has already run */
+        public boolean isDone() {
+            return runnable.done;
+        }
+
         /**
          * Cancels the task if it is still active.
          *
@@ -110,20 +190,78 @@ public class ThreadUtil {
         }
     }
 
+    /**
+     * Wraps a runnable that records the run time of a task in its own and its label's metrics.
+     * One-shot tasks remove themselves from the registry once they have run.
+     */
+    private static final class TimedRunnable implements Runnable {
+        private final long id = TASK_ID_COUNTER.incrementAndGet();
+        private final String label;
+        private final String metricsLabel;
+        private final Runnable delegate;
+        private final boolean repeating;
+        private final TaskMetrics metrics = new TaskMetrics();
+        private volatile boolean done;
+
+        private TimedRunnable(Runnable delegate, String label, boolean repeating) {
+            this.delegate = delegate;
+            this.label = label;
+            this.metricsLabel = metricsLabel(label);
+            this.repeating = repeating;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                delegate.run();
+                failed = false;
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                boolean overrun = elapsed > overrunNanos;
+                metrics.record(start, elapsed, overrun, failed);
+                LABEL_METRICS.computeIfAbsent(metricsLabel, k -> new TaskMetrics())
+                        .record(start, elapsed, overrun, failed);
+
+                if (!repeating) {
+                    done = true;
+                    TASKS.remove(id);
+                }
+            }
+        }
+    }
+
     /** Private constructor to prevent instantiation. */
     public ThreadUtil() {}
 
+    /**
+     * Wraps a runnable so its runs are timed.
+     *
+     * @param runnable the task to run
+     * @param label optional label for identification
+     * @param repeating whether the task is a timer
+     * @return the timed runnable to hand to the scheduler
+     */
+    private static TimedRunnable timed(Runnable runnable, String label, boolean repeating) {
+        return new TimedRunnable(runnable, label, repeating);
+    }
+
     /**
      * Registers a task in the global task map.
      *
+     * @param runnable the timed runnable the task was scheduled with
      * @param handle the underlying task object
-     * @param label optional label for identification
      * @return a {@link ThreadTask} representing the registered task
      */
-    private static ThreadTask register(Object handle, String label) {
-        long id = TASK_ID_COUNTER.incrementAndGet();
-        ThreadTask task = new ThreadTask(id, label, handle);
-        TASKS.put(id, new WeakReference<>(task));
+    private static ThreadTask register(TimedRunnable runnable, Object handle) {
+        ThreadTask task = new ThreadTask(runnable, handle);
+        TASKS.put(task.id, task);
+
+        // The task may have run and removed itself before it was registered.
+        if (runnable.done) TASKS.remove(task.id);
+
+        if (task.id % PURGE_INTERVAL == 0) purge();
         return task;
     }
 
@@ -131,18 +269,92 @@ public class ThreadUtil {
      * Retrieves a task by its unique ID.
      *
      * @param id the task ID
-     * @return the {@link ThreadTask} or null if not found
+     * @return the {@link ThreadTask} or null if not found, finished or cancelled
      */
     public static ThreadTask getTask(long id) {
-        WeakReference<ThreadTask> ref = TASKS.get(id);
-        ThreadTask task = ref == null ? null : ref.get();
-        if (task == null) TASKS.remove(id);
+        ThreadTask task = TASKS.get(id);
+        if (task == null) return null;
+
+        if (task.isDone() || task.isCancelled()) {
+            TASKS.remove(id);
+            return null;
+        }
         return task;
     }
 
-    /** @return a list of weak references to all currently registered tasks */
-    public static List<WeakReference<ThreadTask>> getAllRunningTasks() {
-        return TASKS.values().stream().toList();
+    /** @return all registered tasks that are still scheduled */
+    public static List<ThreadTask> getAllRunningTasks() {
+        purge();
+        return List.copyOf(TASKS.values());
+    }
+
+    /**
+     * Returns the metrics of every label, including {@link #UNLABELED} for tasks scheduled
+     * without one. Labels that have no scheduled task and have not run for a while are dropped.
+     *
+     * @return an unmodifiable view of the metrics by label
+     */
+    public static Map<String, TaskMetrics> getLabelMetrics() {
+        purge();
+        return Collections.unmodifiableMap(LABEL_METRICS);
+    }
+
+    /**
+     * @param label a task label, or null for {@link #UNLABELED}
+     * @return the metrics of that label, or null if no task with it has been scheduled
+     */
+    public static TaskMetrics getLabelMetrics(String label) {
+        return LABEL_METRICS.get(label == null ? UNLABELED : label);
+    }
+
+    /**
+     * Resets the metrics of every label and registered task, and the hand-off statistics.
+     */
+    public static void resetMetrics() {
+        LABEL_METRICS.values().forEach(TaskMetrics::reset);
+        TASKS.values().forEach(task -> task.getMetrics().reset());
+        HANDOFFS.reset();
+        HANDOFF_LIMITED_TICKS.reset();
+        HANDOFF_PEAK_DEPTH.reset();
+    }
+
+    /**
+     * Sets how long a single run may take before it counts as an overrun.
+     *
+     * @param millis the threshold in milliseconds
+     */
+    public static void setOverrunThreshold(double millis) {
+        overrunNanos = (long) (Math.max(0.0, millis) * 1_000_000L);
+    }
+
+    /** @return the overrun threshold in milliseconds */
+    public static double getOverrunThreshold() {
+        return overrunNanos / 1_000_000.0;
+    }
+
+    /**
+     * Removes finished and cancelled tasks from the registry, and drops the metrics of labels
+     * without a scheduled task that have not run for {@link #LABEL_EXPIRY_NANOS}.
+     */
+    public static void purge() {
+        TASKS.values().removeIf(task -> task.isDone() || task.isCancelled());
+
+        Set<String> live = new HashSet<>();
+        for (ThreadTask task : TASKS.values()) live.add(task.runnable.metricsLabel);
+
+        long now = System.nanoTime();
+        LABEL_METRICS.entrySet().removeIf(entry -> !live.contains(entry.getKey())
+                && now - entry.getValue().getLastRunNanos() > LABEL_EXPIRY_NANOS);
+    }
+
+    /**
+     * Returns the key a label's metrics are stored under: {@link #UNLABELED} for tasks without
+     * a label, and {@link #OTHER_LABELS} once {@link #MAX_LABELS} labels are tracked.
+     */
+    private static String metricsLabel(String label) {
+        String key = label == null ? UNLABELED : label;
+        if (LABEL_METRICS.containsKey(key) || LABEL_METRICS.size() < MAX_LABELS) return key;
+        return OTHER_LABELS;
     }
 
     /**
@@ -158,13 +370,19 @@ public class ThreadUtil {
                 runCatch(runnable, "Error in ensureEntity task on shutdown");
                 return;
             }
-            scheduler.entity(entity).execute(runnable, null, 1L);
+            Location location = entity.getLocation();
+            handOff(regionKey(location), location, () -> {
+                if (entity instanceof Player player && !player.isOnline()) return;
+                // The entity may have moved to another region since it was queued.
+                if (scheduler.isOwnedByCurrentRegion(entity)) runCatch(runnable, "Error in ensureEntity task");
+                else scheduler.entity(entity).execute(runnable, null, 1L);
+            });
         } else {
             if (Bukkit.isPrimaryThread()) {
                 runCatch(runnable, "Error in ensureEntity task");
                 return;
             }
-            Bukkit.getScheduler().runTask(plugin, runnable);
+            handOff(GLOBAL_REGION, null, runnable);
         }
     }
 
@@ -192,8 +410,9 @@ public class ThreadUtil {
     public static ThreadTask ensureEntityLater(@NotNull Entity entity, @NotNull Runnable runnable, long delay, String label) {
         if (entity instanceof Player player && !player.isOnline()) return null;
         delay = Math.max(1, delay);
-        if (isFolia()) return register(scheduler.entity(entity).runDelayed(runnable, delay), label);
-        return register(Bukkit.getScheduler().runTaskLater(plugin, runnable, delay), label);
+        TimedRunnable timed = timed(runnable, label, false);
+        if (isFolia()) return register(timed, scheduler.entity(entity).runDelayed(timed, delay));
+        return register(timed, Bukkit.getScheduler().runTaskLater(plugin, timed, delay));
     }
 
     /**
@@ -223,15 +442,16 @@ public class ThreadUtil {
         if (entity instanceof Player player && !player.isOnline()) return null;
         delay = Math.max(1, delay);
         repeat = Math.max(1, repeat);
+        TimedRunnable timed = timed(runnable, label, true);
         if (isFolia()) {
             return register(
+                    timed,
                     scheduler.entity(entity).runAtFixedRate(task -> {
-                        if (!runCatch(runnable, "Error in ensureEntityTimer task")) task.cancel();
-                    }, null, delay, repeat),
-                    label
+                        if (!runCatch(timed, "Error in ensureEntityTimer task")) task.cancel();
+                    }, null, delay, repeat)
             );
         }
-        return register(Bukkit.getScheduler().runTaskTimer(plugin, runnable, delay, repeat), label);
+        return register(timed, Bukkit.getScheduler().runTaskTimer(plugin, timed, delay, repeat));
     }
 
 
@@ -247,13 +467,17 @@ public class ThreadUtil {
                 runCatch(runnable, "Error in ensureLocation task on shutdown");
                 return;
             }
-            scheduler.region(location).execute(runnable);
+            if (location.getWorld() == null) {
+                scheduler.region(location).execute(runnable);
+                return;
+            }
+            handOff(regionKey(location), location, runnable);
         } else {
             if (Bukkit.isPrimaryThread()) {
                 runCatch(runnable, "Error in ensureLocation task");
                 return;
             }
-            Bukkit.getScheduler().runTask(plugin, runnable);
+            handOff(GLOBAL_REGION, null, runnable);
         }
     }
 
@@ -280,13 +504,14 @@ public class ThreadUtil {
      */
     public static ThreadTask ensureLocationLater(@NotNull Location location, @NotNull Runnable runnable, long delay, String label) {
         delay = Math.max(1, delay);
+        TimedRunnable timed = timed(runnable, label, false);
         if (isFolia()) return register(
+                timed,
                 scheduler.region(location).runDelayed(task -> {
-                    if (!runCatch(runnable, "Error in ensureLocationLater")) task.cancel();
-                }, delay),
-                label
+                    if (!runCatch(timed, "Error in ensureLocationLater")) task.cancel();
+                }, delay)
         );
-        return register(Bukkit.getScheduler().runTaskLater(plugin, runnable, delay), label);
+        return register(timed, Bukkit.getScheduler().runTaskLater(plugin, timed, delay));
     }
 
     /**
@@ -315,13 +540,14 @@ public class ThreadUtil {
     public static ThreadTask ensureLocationTimer(@NotNull Location location, @NotNull Runnable runnable, long delay, long repeat, String label) {
         delay = Math.max(1, delay);
         repeat = Math.max(1, repeat);
+        TimedRunnable timed = timed(runnable, label, true);
         if (isFolia()) return register(
+                timed,
                 scheduler.region(location).runAtFixedRate(task -> {
-                    if (!runCatch(runnable, "Error in ensureLocationTimer task")) task.cancel();
-                }, delay, repeat),
-                label
+                    if (!runCatch(timed, "Error in ensureLocationTimer task")) task.cancel();
+                }, delay, repeat)
         );
-        return register(Bukkit.getScheduler().runTaskTimer(plugin, runnable, delay, repeat), label);
+        return register(timed, Bukkit.getScheduler().runTaskTimer(plugin, timed, delay, repeat));
     }
 
 
@@ -365,13 +591,14 @@ public class ThreadUtil {
      */
     public static ThreadTask runAsyncLater(@NotNull Runnable runnable, long delay, String label) {
         delay = Math.max(1, delay);
+        TimedRunnable timed = timed(runnable, label, false);
         if (isFolia()) return register(
+                timed,
                 scheduler.async().runDelayed(task -> {
-                    if (!runCatch(runnable, "Error in runAsyncLater task")) task.cancel();
-                }, delay * 50L, TimeUnit.MILLISECONDS),
-                label
+                    if (!runCatch(timed, "Error in runAsyncLater task")) task.cancel();
+                }, delay * 50L, TimeUnit.MILLISECONDS)
         );
-        return register(Bukkit.getScheduler().runTaskLater(plugin, runnable, delay), label);
+        return register(timed, Bukkit.getScheduler().runTaskLater(plugin, timed, delay));
     }
 
     /**
@@ -397,12 +624,13 @@ public class ThreadUtil {
      */
     public static ThreadTask runAsyncTimer(@NotNull Runnable runnable, long delay, long repeat, String label) {
         delay = Math.max(1, delay);
+        TimedRunnable timed = timed(runnable, label, true);
         if (isFolia()) return register(
-                scheduler.async().runAtFixedRate((Consumer<TaskImplementation<Void>>) task -> runnable.run(),
-                        delay * 50L, repeat * 50L, TimeUnit.MILLISECONDS),
-                label
+                timed,
+                scheduler.async().runAtFixedRate((Consumer<TaskImplementation<Void>>) task -> timed.run(),
+                        delay * 50L, repeat * 50L, TimeUnit.MILLISECONDS)
         );
-        return register(Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, runnable, delay, repeat), label);
+        return register(timed, Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, timed, delay, repeat));
     }
 
 
@@ -446,13 +674,14 @@ public class ThreadUtil {
      */
     public static ThreadTask runGlobalLater(@NotNull Runnable runnable, long delay, String label) {
         delay = Math.max(1, delay);
+        TimedRunnable timed = timed(runnable, label, false);
         if (isFolia()) return register(
+                timed,
                 scheduler.global().runDelayed(task -> {
-                    if (!runCatch(runnable, "Error in runGlobalLater task")) task.cancel();
-                }, delay),
-                label
+                    if (!runCatch(timed, "Error in runGlobalLater task")) task.cancel();
+                }, delay)
         );
-        return register(Bukkit.getScheduler().runTaskLater(plugin, runnable, delay), label);
+        return register(timed, Bukkit.getScheduler().runTaskLater(plugin, timed, delay));
     }
 
     /**
@@ -478,13 +707,253 @@ public class ThreadUtil {
      */
     public static ThreadTask runGlobalTimer(@NotNull Runnable runnable, long delay, long repeat, String label) {
         delay = Math.max(1, delay);
+        TimedRunnable timed = timed(runnable, label, true);
         if (isFolia()) return register(
+                timed,
                 scheduler.global().runAtFixedRate(task -> {
-                    if (!runCatch(runnable, "Error in runGlobalTimer task")) task.cancel();
-                }, delay, repeat),
-                label
+                    if (!runCatch(timed, "Error in runGlobalTimer task")) task.cancel();
+                }, delay, repeat)
         );
-        return register(Bukkit.getScheduler().runTaskTimer(plugin, runnable, delay, repeat), label);
+        return register(timed, Bukkit.getScheduler().runTaskTimer(plugin, timed, delay, repeat));
+    }
+
+    /**
+     * Runs a callback on the thread owning a location after a delay, through the timer wheel of
+     * that world or region section. Much cheaper than {@link #ensureLocationLater} when many
+     * callbacks are pending; the returned handle is not listed in the task registry.
+     *
+     * @param location the location the callback works on
+     * @param runnable the callback
+     * @param delay ticks to delay, at most {@link TimerWheel#MAX_DELAY}
+     * @return a handle to cancel the callback
+     */
+    public static TimerWheel.Timeout scheduleLater(@NotNull Location location, @NotNull Runnable runnable, long delay) {
+        if (location.getWorld() == null) return scheduleGlobalLater(runnable, delay);
+        return schedule(regionKey(location), location, runnable, delay);
+    }
+
+    /**
+     * Runs a callback on the global thread after a delay, through the global timer wheel.
+     *
+     * @param runnable the callback
+     * @param delay ticks to delay, at most {@link TimerWheel#MAX_DELAY}
+     * @return a handle to cancel the callback
+     */
+    public static TimerWheel.Timeout scheduleGlobalLater(@NotNull Runnable runnable, long delay) {
+        return schedule(GLOBAL_REGION, null, runnable, delay);
+    }
+
+    /** @return the number of callbacks pending in all timer wheels */
+    public static int getPendingTimeouts() {
+        int pending = 0;
+        for (RegionTicker ticker : REGIONS.values()) pending += ticker.wheel.size();
+        return pending;
+    }
+
+    /**
+     * Sets how many hand-offs a region ticker runs per tick at most.
+     *
+     * @param limit the limit, at least 1
+     */
+    public static void setHandoffLimit(int limit) {
+        handoffLimit = Math.max(1, limit);
+    }
+
+    /** @return statistics of the hand-off queues drained by the region tickers */
+    public static HandoffStats getHandoffStats() {
+        int queues = 0;
+        int depth = 0;
+        for (RegionTicker ticker : REGIONS.values()) {
+            queues++;
+            depth += ticker.depth.get();
+        }
+
+        return new HandoffStats(queues, depth, HANDOFF_PEAK_DEPTH.get(), HANDOFFS.sum(), HANDOFF_LIMITED_TICKS.sum());
+    }
+
+    /**
+     * Hand-off queue statistics.
+     *
+     * @param queues      region tickers currently running
+     * @param depth       hand-offs waiting in all queues
+     * @param peakDepth   deepest a single queue has been
+     * @param handedOff   hand-offs queued in total
+     * @param limitedTicks ticks in which a queue hit the per-tick limit
+     */
+    public record HandoffStats(int queues, int depth, long peakDepth, long handedOff, long limitedTicks) {
+    }
+
+    private static int readSectionShift() {
+        if (!isFolia()) return 8;
+
+        try {
+            Class<?> regions = Class.forName("io.papermc.paper.threadedregions.TickRegions");
+            int chunkShift = (int) regions.getMethod("getRegionChunkShift").invoke(null);
+            return chunkShift + 4;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            Bukkit.getLogger().log(Level.WARNING, "[SpellCraft] Could not read the Folia region section size, "
+                    + "assuming the default of 16 chunks; keep threaded-regions.grid-exponent at 4", e);
+            return 8;
+        }
+    }
+
+    private static RegionKey regionKey(Location location) {
+        World world = location.getWorld();
+        UUID worldId = world == null ? null : world.getUID();
+
+        if (!isFolia()) return new RegionKey(worldId, 0, 0);
+
+        return new RegionKey(worldId, location.getBlockX() >> SECTION_SHIFT, location.getBlockZ() >> SECTION_SHIFT);
+    }
+
+    private static TimerWheel.Timeout schedule(RegionKey key, Location anchor, Runnable runnable, long delay) {
+        TimerWheel.Timeout[] timeout = new TimerWheel.Timeout[1];
+        RegionTicker[] created = new RegionTicker[1];
+
+        REGIONS.compute(key, (k, ticker) -> {
+            if (ticker == null) {
+                ticker = new RegionTicker(k, anchor == null ? null : anchor.clone());
+                created[0] = ticker;
+            }
+            timeout[0] = ticker.wheel.schedule(runnable, delay);
+            return ticker;
+        });
+
+        if (created[0] != null) created[0].start();
+        return timeout[0];
+    }
+
+    /**
+     * Queues a runnable for the ticker of a region. Appends to the queue of a running ticker
+     * without locking, and only falls back to the map when the ticker has to be started.
+     */
+    private static void handOff(RegionKey key, Location anchor, Runnable runnable) {
+        HANDOFFS.increment();
+
+        RegionTicker running = REGIONS.get(key);
+        if (running != null && running.offer(runnable)) return;
+
+        RegionTicker[] created = new RegionTicker[1];
+
+        REGIONS.compute(key, (k, ticker) -> {
+            if (ticker == null) {
+                ticker = new RegionTicker(k, anchor == null ? null : anchor.clone());
+                created[0] = ticker;
+            }
+            // Cannot fail: tickers only close inside compute on this map.
+            ticker.offer(runnable);
+            return ticker;
+        });
+
+        if (created[0] != null) created[0].start();
+    }
+
+    /**
+     * Identifies a region ticker: the world on Paper, the world and region section on Folia.
+     */
+    private record RegionKey(UUID world, int x, int z) {
+    }
+
+    /**
+     * Drains the hand-off queue and advances the timer wheel of one region every tick, on the
+     * thread that owns it, and stops after it has been idle for {@link #IDLE_TICKS} ticks.
+     */
+    private static final class RegionTicker {
+
+        private final RegionKey key;
+        private final Location anchor;
+        private final TimerWheel wheel = new TimerWheel();
+
+        /** Runnables handed over from other threads. */
+        private final ConcurrentLinkedQueue<Runnable> handoffs = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+
+        private int idleTicks;
+
+        private volatile ThreadTask task;
+        private volatile boolean closed;
+
+        private RegionTicker(RegionKey key, Location anchor) {
+            this.key = key;
+            this.anchor = anchor;
+        }
+
+        private void start() {
+            task = anchor == null
+                    ? runGlobalTimer(this::tick, 1L, 1L, "Region ticker")
+                    : ensureLocationTimer(anchor, this::tick, 1L, 1L, "Region ticker");
+            if (closed) task.cancel();
+        }
+
+        /**
+         * Appends a runnable to the hand-off queue.
+         *
+         * @return false if this ticker has closed and the runnable was not queued
+         */
+        private boolean offer(Runnable runnable) {
+            HANDOFF_PEAK_DEPTH.accumulate(depth.incrementAndGet());
+            handoffs.add(runnable);
+
+            // Closing drains the queue once more afterwards, so whoever removes it runs it.
+            if (closed && handoffs.remove(runnable)) {
+                depth.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private void tick() {
+            int limit = handoffLimit;
+            int ran = 0;
+
+            Runnable next;
+            while (ran < limit && (next = handoffs.poll()) != null) {
+                depth.decrementAndGet();
+                runCatch(next, "Error in hand-off task");
+                ran++;
+            }
+
+            if (ran == limit && !handoffs.isEmpty()) HANDOFF_LIMITED_TICKS.increment();
+
+            wheel.advance();
+
+            if (ran > 0 || !wheel.isEmpty() || !handoffs.isEmpty()) {
+                idleTicks = 0;
+            } else if (++idleTicks >= IDLE_TICKS) {
+                close();
+            }
+        }
+
+        /**
+         * Unregisters this ticker if nothing was scheduled in the meantime, then runs whatever
+         * was handed over while it closed.
+         */
+        private void close() {
+            boolean[] removed = new boolean[1];
+
+            REGIONS.computeIfPresent(key, (k, ticker) -> {
+                if (ticker != this || !wheel.isEmpty() || !handoffs.isEmpty()) return ticker;
+                closed = true;
+                removed[0] = true;
+                return null;
+            });
+
+            if (!removed[0]) return;
+
+            cancel();
+
+            Runnable next;
+            while ((next = handoffs.poll()) != null) {
+                depth.decrementAndGet();
+                runCatch(next, "Error in hand-off task");
+            }
+        }
+
+        private void cancel() {
+            closed = true;
+            ThreadTask current = task;
+            if (current != null) current.cancel();
+        }
     }
 
     /**
@@ -505,10 +974,23 @@ public class ThreadUtil {
     }
 
     /**
-     * Marks the scheduler as shutting down and clears all registered tasks.
+     * Marks the scheduler as shutting down without stopping anything yet: from now on the
+     * {@code ensure...}, {@code runAsync} and {@code runGlobal} methods run their task directly
+     * on the calling thread.
+     */
+    public static void beginShutdown() {
+        SHUTTING_DOWN.set(true);
+    }
+
+    /**
+     * Marks the scheduler as shutting down, stops the region tickers and clears all registered
+     * tasks and metrics.
      */
     public static void shutdown() {
         SHUTTING_DOWN.set(true);
+        REGIONS.values().forEach(RegionTicker::cancel);
+        REGIONS.clear();
         TASKS.clear();
+        LABEL_METRICS.clear();
     }
 }
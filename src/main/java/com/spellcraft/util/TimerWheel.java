@@ -0,0 +1,199 @@
+package com.spellcraft.util;
+
+import com.spellcraft.SpellCraftPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.logging.Level;
+
+/**
+ * Hierarchical timer wheel for delayed callbacks, advanced one tick at a time by a single owner.
+ * <p>
+ * Timeouts are kept in {@value #LEVELS} wheels of {@value #SLOTS} slots each; the first wheel
+ * holds those due within {@value #SLOTS} ticks, and each following wheel covers {@value #SLOTS}
+ * times the range of the previous one. Timeouts cascade down a level whenever the wheel below
+ * wraps around, so every tick only visits the slot that is due. Scheduling and cancelling are
+ * O(1) and allocate nothing but the {@link Timeout} handle.
+ * <p>
+ * {@link #schedule} and {@link Timeout#cancel()} may be called from any thread; new timeouts are
+ * handed to the owner and placed on its next {@link #advance()}. Cancelled timeouts are dropped
+ * when their slot comes up. {@link #advance()} must only be called by the owner, which also runs
+ * the callbacks. Use {@link ThreadUtil#scheduleLater} rather than creating wheels directly.
+ */
+public final class TimerWheel {
+
+    /** Slots per wheel, as a shift. */
+    private static final int SLOT_SHIFT = 6;
+
+    /** Slots per wheel. */
+    private static final int SLOTS = 1 << SLOT_SHIFT;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /** Number of wheels; together they cover 2^24 ticks, about 9 days. */
+    private static final int LEVELS = 4;
+
+    /** Longest delay that fits the wheels, in ticks; longer delays are clamped. */
+    public static final long MAX_DELAY = (1L << (SLOT_SHIFT * LEVELS)) - 1;
+
+    /** Heads of the singly linked timeout lists, by level and slot; only touched by the owner. */
+    private final Timeout[][] slots = new Timeout[LEVELS][SLOTS];
+
+    /** Timeouts handed over since the last {@link #advance()}. */
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    /** Timeouts that are neither expired nor cancelled. */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /** Ticks advanced so far. */
+    private volatile long tick;
+
+    /**
+     * Schedules a callback.
+     *
+     * @param task  the callback, run by the owner of this wheel
+     * @param delay ticks from now, at least 1 and at most {@link #MAX_DELAY}
+     * @return a handle to cancel the callback
+     */
+    public Timeout schedule(@NotNull Runnable task, long delay) {
+        Timeout timeout = new Timeout(this, task, tick + Math.min(Math.max(1L, delay), MAX_DELAY));
+        size.incrementAndGet();
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Advances the wheel by one tick and runs every callback that became due.
+     * Only called by the owner.
+     */
+    public void advance() {
+        long now = ++tick;
+
+        Timeout next;
+        while ((next = pending.poll()) != null) {
+            place(next, now);
+        }
+
+        // Cascade from the top so timeouts can drop through several levels in one tick.
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((now & ((1L << (SLOT_SHIFT * level)) - 1)) != 0) continue;
+
+            int index = (int) (now >>> (SLOT_SHIFT * level)) & SLOT_MASK;
+            Timeout timeout = slots[level][index];
+            slots[level][index] = null;
+
+            while (timeout != null) {
+                Timeout following = timeout.next;
+                if (timeout.state == Timeout.PENDING) place(timeout, now);
+                timeout = following;
+            }
+        }
+
+        int index = (int) now & SLOT_MASK;
+        Timeout timeout = slots[0][index];
+        slots[0][index] = null;
+
+        while (timeout != null) {
+            Timeout following = timeout.next;
+            timeout.next = null;
+
+            if (timeout.deadline > now) {
+                place(timeout, now);
+            } else if (Timeout.STATE.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) {
+                size.decrementAndGet();
+                Runnable task = timeout.task;
+                timeout.task = null;
+
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    SpellCraftPlugin.log.log(Level.WARNING, "Error in timer wheel callback", e);
+                }
+            }
+
+            timeout = following;
+        }
+    }
+
+    /** @return the number of callbacks that are still due to run */
+    public int size() {
+        return size.get();
+    }
+
+    /** @return true if no callback is due to run */
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * Puts a timeout into the slot of the lowest wheel that covers its remaining delay.
+     */
+    private void place(Timeout timeout, long now) {
+        if (timeout.state != Timeout.PENDING) return;
+
+        long deadline = Math.max(timeout.deadline, now);
+        long remaining = deadline - now;
+
+        int level = 0;
+        while (level < LEVELS - 1 && remaining >= 1L << (SLOT_SHIFT * (level + 1))) {
+            level++;
+        }
+
+        int index = (int) (deadline >>> (SLOT_SHIFT * level)) & SLOT_MASK;
+        timeout.next = slots[level][index];
+        slots[level][index] = timeout;
+    }
+
+    /**
+     * Handle of a scheduled callback. Unlike a {@link ThreadUtil.ThreadTask} it is not listed in
+     * the task registry and holds nothing once it has run or was cancelled.
+     */
+    public static final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimerWheel wheel;
+        private final long deadline;
+        private volatile Runnable task;
+        private volatile int state;
+
+        /** Next timeout in the same slot; only touched by the owner of the wheel. */
+        private Timeout next;
+
+        private Timeout(TimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the callback if it has not run yet.
+         *
+         * @return true if this call cancelled it
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) return false;
+
+            task = null;
+            wheel.size.decrementAndGet();
+            return true;
+        }
+
+        /** @return true if the callback was cancelled */
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /** @return true if the callback has run */
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.spellcraft.util;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Predicate;
+
+/**
+ * Walks the blocks a ray passes through, in order and each exactly once (Amanatides–Woo), until
+ * one matches a material predicate.
+ * <p>
+ * Unlike sampling points along the ray, the walk never visits a block twice and never steps
+ * over the corner of a block the ray only clips. Types are read through {@link BlockMemo}, so
+ * rays crossing the same blocks in one tick read each of them from the world once.
+ * <p>
+ * Blocks are only read in loaded chunks: reaching an unloaded chunk ends the walk with
+ * {@link Outcome#UNLOADED} instead of loading it.
+ * <p>
+ * Keep one ray per user; it holds the result of its last walk and is not thread-safe.
+ */
+public final class VoxelRay {
+
+    /** Stops at blocks that are solid. */
+    public static final Predicate<Material> SOLID = Material::isSolid;
+
+    /** Result of a {@link #trace} call. */
+    public enum Outcome {
+
+        /** The ray reached its range without finding a matching block. */
+        MISSED,
+
+        /** The ray found a matching block, see {@link #getBlock()}. */
+        HIT,
+
+        /** The ray reached a chunk that is not loaded. */
+        UNLOADED
+    }
+
+    private World world;
+    private int x;
+    private int y;
+    private int z;
+    private double distance;
+
+    /** Chunk last confirmed to be loaded, to avoid repeating the lookup for every block. */
+    private World loadedWorld;
+    private int loadedChunkX;
+    private int loadedChunkZ;
+
+    /**
+     * Walks the blocks along a ray until one matches.
+     *
+     * @param world     the world to walk in
+     * @param origin    the start of the ray
+     * @param direction the unit direction of the ray
+     * @param range     how far to walk, in blocks
+     * @param stop      which block types end the walk
+     * @return whether the walk found a block, reached its range or an unloaded chunk
+     */
+    public Outcome trace(@NotNull World world, @NotNull MutableVector origin, @NotNull MutableVector direction,
+                         double range, @NotNull Predicate<? super Material> stop) {
+        this.world = world;
+        loadedWorld = null;
+
+        x = origin.getBlockX();
+        y = origin.getBlockY();
+        z = origin.getBlockZ();
+
+        int stepX = direction.getX() > 0 ? 1 : direction.getX() < 0 ? -1 : 0;
+        int stepY = direction.getY() > 0 ? 1 : direction.getY() < 0 ? -1 : 0;
+        int stepZ = direction.getZ() > 0 ? 1 : direction.getZ() < 0 ? -1 : 0;
+
+        double deltaX = stepX == 0 ? Double.MAX_VALUE : Math.abs(1.0 / direction.getX());
+        double deltaY = stepY == 0 ? Double.MAX_VALUE : Math.abs(1.0 / direction.getY());
+        double deltaZ = stepZ == 0 ? Double.MAX_VALUE : Math.abs(1.0 / direction.getZ());
+
+        double nextX = stepX == 0 ? Double.MAX_VALUE : (stepX > 0 ? x + 1 - origin.getX() : origin.getX() - x) * deltaX;
+        double nextY = stepY == 0 ? Double.MAX_VALUE : (stepY > 0 ? y + 1 - origin.getY() : origin.getY() - y) * deltaY;
+        double nextZ = stepZ == 0 ? Double.MAX_VALUE : (stepZ > 0 ? z + 1 - origin.getZ() : origin.getZ() - z) * deltaZ;
+
+        distance = 0.0;
+
+        while (true) {
+            if (!isChunkLoaded(x >> 4, z >> 4)) return Outcome.UNLOADED;
+
+            if (stop.test(BlockMemo.getType(world, x, y, z))) return Outcome.HIT;
+
+            if (nextX <= nextY && nextX <= nextZ) {
+                distance = nextX;
+                x += stepX;
+                nextX += deltaX;
+            } else if (nextY <= nextZ) {
+                distance = nextY;
+                y += stepY;
+                nextY += deltaY;
+            } else {
+                distance = nextZ;
+                z += stepZ;
+                nextZ += deltaZ;
+            }
+
+            if (distance > range) {
+                distance = range;
+                return Outcome.MISSED;
+            }
+        }
+    }
+
+    /**
+     * @return the distance along the ray at which the last walk entered the block it stopped in,
+     *         or its range if it missed
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /** @return the block the last walk stopped in, such as the matching block of a hit */
+    public Block getBlock() {
+        return world.getBlockAt(x, y, z);
+    }
+
+    private boolean isChunkLoaded(int chunkX, int chunkZ) {
+        if (world == loadedWorld && chunkX == loadedChunkX && chunkZ == loadedChunkZ) return true;
+        if (!world.isChunkLoaded(chunkX, chunkZ)) return false;
+
+        loadedWorld = world;
+        loadedChunkX = chunkX;
+        loadedChunkZ = chunkZ;
+        return true;
+    }
+}